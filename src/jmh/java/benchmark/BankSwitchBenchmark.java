@@ -0,0 +1,96 @@
+package benchmark;
+
+import cartridge.header.enums.CartridgeType;
+import cartridge.header.enums.RamSize;
+import cartridge.header.enums.RomSize;
+import cartridge.interfaces.MemoryBankController;
+import cartridge.mbc.MBC1;
+import cartridge.mbc.MBC5;
+import cartridge.ram.SRAM;
+import cartridge.rom.ROM;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BankSwitchBenchmark {
+
+    private static final int SWITCHES = 256;
+
+    // Reads between two bank switches
+    @Param({"1", "4", "16"})
+    public int reads_per_switch;
+
+    @Param({"MBC1", "MBC5"})
+    public String mbc;
+
+    private MemoryBankController mbc_;
+    private int[] banks_;
+    private int[] addresses_;
+
+    // bank = (low & low_mask) | (high << high_shift)
+    private int low_mask_;
+    private int high_register_;
+    private int high_shift_;
+
+    @Setup
+    public void setup() {
+        switch (mbc) {
+            case "MBC1" -> {
+                ROM rom = new ROM(BenchmarkRoms.create(CartridgeType.MBC1_RAM, RomSize.MB_2, RamSize.KB_32));
+                mbc_ = new MBC1(rom, new SRAM(RamSize.KB_32.size_in_bytes));
+                low_mask_ = 0x1F;
+                high_register_ = 0x4000;
+                high_shift_ = 5;
+            }
+            case "MBC5" -> {
+                ROM rom = new ROM(BenchmarkRoms.create(CartridgeType.MBC5_RAM, RomSize.MB_2, RamSize.KB_32));
+                mbc_ = new MBC5(rom, new SRAM(RamSize.KB_32.size_in_bytes), false);
+                low_mask_ = 0xFF;
+                high_register_ = 0x3000;
+                high_shift_ = 8;
+            }
+            default -> throw new IllegalArgumentException("Unknown MBC " + mbc);
+        }
+
+        banks_ = BenchmarkRoms.randomInts(SWITCHES, 0, 128, 4);
+        addresses_ = BenchmarkRoms.randomInts(reads_per_switch, 0x4000, 0x4000, 5);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SWITCHES)
+    public int switchAndRead() {
+        int sum = 0;
+        for (int bank : banks_) {
+            // lower bits, upper bits, then read from the switched bank
+            mbc_.writeRom(0x2000, bank & low_mask_);
+            mbc_.writeRom(high_register_, bank >>> high_shift_);
+
+            for (int address : addresses_) {
+                sum += mbc_.readRom(address);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SWITCHES)
+    public int switchModeAndRead() {
+        int sum = 0;
+        for (int bank : banks_) {
+            // MBC1: mode switch changes bank 0 and the RAM bank as well, MBC5: RAM bank write only
+            mbc_.writeRom(0x6000, bank & 0x01);
+            mbc_.writeRom(0x4000, bank >>> 5);
+
+            sum += mbc_.readRom(bank);
+            sum += mbc_.readRom(0x4000 + bank);
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,61 @@
+package benchmark;
+
+import cartridge.constants.CartridgeConstants;
+import cartridge.header.enums.CartridgeType;
+import cartridge.header.enums.RamSize;
+import cartridge.header.enums.RomSize;
+
+import java.util.Random;
+
+// Synthetic ROM images with a valid header, benchmarks don't depend on files on disk
+final class BenchmarkRoms {
+
+    static byte[] create(CartridgeType type, RomSize rom_size, RamSize ram_size) {
+        byte[] data = new byte[rom_size.size_in_bytes];
+
+        // bank number in every byte, reads of different banks return different values
+        for (int bank = 0; bank < rom_size.bank_count; bank++) {
+            int start = bank * CartridgeConstants.ROM_BANK_SIZE;
+            for (int i = 0; i < CartridgeConstants.ROM_BANK_SIZE; i++) {
+                data[start + i] = (byte) (bank ^ i);
+            }
+        }
+
+        for (int addr = CartridgeConstants.HEADER_START; addr <= CartridgeConstants.HEADER_END; addr++) {
+            data[addr] = 0;
+        }
+
+        System.arraycopy(CartridgeConstants.NINTENDO_LOGO, 0, data, CartridgeConstants.LOGO_START, CartridgeConstants.NINTENDO_LOGO.length);
+
+        byte[] title = "BENCHMARK".getBytes();
+        System.arraycopy(title, 0, data, CartridgeConstants.TITLE_START, title.length);
+
+        data[CartridgeConstants.CARTRIDGE_TYPE] = (byte) type.value;
+        data[CartridgeConstants.ROM_SIZE] = (byte) rom_size.value;
+        data[CartridgeConstants.RAM_SIZE] = (byte) ram_size.value;
+
+        int checksum = 0;
+        for (int addr = CartridgeConstants.TITLE_START; addr <= CartridgeConstants.VERSION; addr++) {
+            checksum = (checksum - Byte.toUnsignedInt(data[addr]) - 1) & 0xFF;
+        }
+        data[CartridgeConstants.HEADER_CHECKSUM] = (byte) checksum;
+
+        return data;
+    }
+
+    // Fixed seed, runs stay comparable across releases
+    static int[] randomInts(int count, int start, int length, long seed) {
+        Random random = new Random(seed);
+
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = start + random.nextInt(length);
+        }
+        return result;
+    }
+
+    private BenchmarkRoms() {
+        throw new AssertionError("No instantiation for Utility classes");
+    }
+
+}
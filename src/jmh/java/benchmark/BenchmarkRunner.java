@@ -0,0 +1,29 @@
+package benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs every benchmark and writes JSON results, e.g. one file per release for regression tracking
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String result_path = args.length > 0 ? args[0] : "jmh-result.json";
+        String include = args.length > 1 ? args[1] : "benchmark\\..*Benchmark";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result_path)
+                .build();
+
+        new Runner(options).run();
+    }
+
+    private BenchmarkRunner() {
+        throw new AssertionError("No instantiation for Utility classes");
+    }
+
+}
@@ -0,0 +1,57 @@
+package benchmark;
+
+import cartridge.Cartridge;
+import cartridge.header.enums.CartridgeType;
+import cartridge.header.enums.RamSize;
+import cartridge.header.enums.RomSize;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartridgeReadBenchmark {
+
+    private static final int ACCESSES = 1024;
+
+    @Param({"ROM_BANK_0", "ROM_BANK_N", "RAM"})
+    public String region;
+
+    @Param({"MBC1", "MBC5"})
+    public String mbc;
+
+    private Cartridge cartridge_;
+    private int[] addresses_;
+
+    @Setup
+    public void setup() {
+        CartridgeType type = mbc.equals("MBC5") ? CartridgeType.MBC5_RAM_BATTERY : CartridgeType.MBC1_RAM_BATTERY;
+        cartridge_ = new Cartridge(BenchmarkRoms.create(type, RomSize.MB_1, RamSize.KB_32));
+
+        // bank 5, RAM enabled
+        cartridge_.write(0x2000, 0x05);
+        cartridge_.write(0x0000, 0x0A);
+
+        addresses_ = switch (region) {
+            case "ROM_BANK_0" -> BenchmarkRoms.randomInts(ACCESSES, 0x0000, 0x4000, 1);
+            case "ROM_BANK_N" -> BenchmarkRoms.randomInts(ACCESSES, 0x4000, 0x4000, 2);
+            case "RAM" -> BenchmarkRoms.randomInts(ACCESSES, 0xA000, 0x2000, 3);
+            default -> throw new IllegalArgumentException("Unknown region " + region);
+        };
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public int read() {
+        int sum = 0;
+        for (int address : addresses_) {
+            sum += cartridge_.read(address);
+        }
+        return sum;
+    }
+
+}
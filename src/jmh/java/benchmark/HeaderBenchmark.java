@@ -0,0 +1,41 @@
+package benchmark;
+
+import cartridge.header.Header;
+import cartridge.header.enums.CartridgeType;
+import cartridge.header.enums.RamSize;
+import cartridge.header.enums.RomSize;
+import cartridge.rom.ROM;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeaderBenchmark {
+
+    private byte[] rom_data_;
+    private ROM rom_;
+
+    @Setup
+    public void setup() {
+        rom_data_ = BenchmarkRoms.create(CartridgeType.MBC1_RAM_BATTERY, RomSize.MB_1, RamSize.KB_32);
+        rom_ = new ROM(rom_data_);
+    }
+
+    @Benchmark
+    public boolean parseAndValidate() {
+        Header header = Header.parse(rom_data_);
+        return header.isValid(rom_data_);
+    }
+
+    @Benchmark
+    public boolean parseAndValidateReadOnlyMemory() {
+        Header header = Header.parse(rom_);
+        return header.isValid(rom_);
+    }
+
+}
@@ -0,0 +1,40 @@
+package benchmark;
+
+import cartridge.header.enums.CartridgeType;
+import cartridge.header.enums.RamSize;
+import cartridge.header.enums.RomSize;
+import cartridge.rom.ROM;
+import cartridge.util.RomIntegrity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntegrityBenchmark {
+
+    @Param({"KB_256", "MB_1", "MB_8"})
+    public String rom_size;
+
+    private ROM rom_;
+
+    @Setup
+    public void setup() {
+        rom_ = new ROM(BenchmarkRoms.create(CartridgeType.MBC1, RomSize.valueOf(rom_size), RamSize.NONE));
+    }
+
+    @Benchmark
+    public int globalChecksum() {
+        return RomIntegrity.computeGlobalChecksum(rom_);
+    }
+
+    @Benchmark
+    public RomIntegrity.Result verify() {
+        return RomIntegrity.verify(rom_);
+    }
+
+}
@@ -0,0 +1,62 @@
+package benchmark;
+
+import cartridge.Cartridge;
+import cartridge.header.enums.CartridgeType;
+import cartridge.header.enums.RamSize;
+import cartridge.header.enums.RomSize;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Every RomSize, unofficial 72/80/96 bank images take the modulo fallback
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RomSizeBenchmark {
+
+    private static final int SWITCHES = 256;
+
+    @Param({"KB_32", "KB_64", "KB_128", "KB_256", "KB_512", "MB_1", "MB_2", "MB_4", "MB_8", "MB_1_1", "MB_1_2", "MB_1_5"})
+    public String rom_size;
+
+    private Cartridge cartridge_;
+    private int[] banks_;
+    private int[] addresses_;
+
+    @Setup
+    public void setup() {
+        RomSize size = RomSize.valueOf(rom_size);
+        cartridge_ = new Cartridge(BenchmarkRoms.create(CartridgeType.MBC1, size, RamSize.NONE));
+
+        // full MBC1 bank range, values past the image size exercise the wrap around
+        banks_ = BenchmarkRoms.randomInts(SWITCHES, 0, 128, 8);
+        addresses_ = BenchmarkRoms.randomInts(SWITCHES, 0x4000, 0x4000, 9);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SWITCHES)
+    public int switchAndRead() {
+        int sum = 0;
+        for (int i = 0; i < SWITCHES; i++) {
+            int bank = banks_[i];
+            cartridge_.write(0x2000, bank & 0x1F);
+            cartridge_.write(0x4000, bank >>> 5);
+            sum += cartridge_.read(addresses_[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SWITCHES)
+    public int readBankN() {
+        int sum = 0;
+        for (int address : addresses_) {
+            sum += cartridge_.read(address);
+        }
+        return sum;
+    }
+
+}
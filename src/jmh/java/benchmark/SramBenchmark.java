@@ -0,0 +1,67 @@
+package benchmark;
+
+import cartridge.header.enums.RamSize;
+import cartridge.ram.SRAM;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SramBenchmark {
+
+    private static final int ACCESSES = 1024;
+
+    @Param({"KB_8", "KB_32", "KB_64", "KB_128"})
+    public String ram_size;
+
+    private SRAM sram_;
+    private int[] banks_;
+    private int[] addresses_;
+
+    @Setup
+    public void setup() {
+        RamSize size = RamSize.valueOf(ram_size);
+
+        sram_ = new SRAM(size.size_in_bytes);
+        sram_.setEnabled(true);
+
+        banks_ = BenchmarkRoms.randomInts(ACCESSES, 0, size.bank_count, 6);
+        addresses_ = BenchmarkRoms.randomInts(ACCESSES, 0xA000, 0x2000, 7);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public int read() {
+        int sum = 0;
+        for (int i = 0; i < ACCESSES; i++) {
+            sum += sram_.read(addresses_[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public void write() {
+        for (int i = 0; i < ACCESSES; i++) {
+            sram_.write(addresses_[i], i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public int selectBankAndReadWrite() {
+        int sum = 0;
+        for (int i = 0; i < ACCESSES; i++) {
+            sram_.selectBank(banks_[i]);
+            sram_.write(addresses_[i], i);
+            sum += sram_.read(addresses_[ACCESSES - 1 - i]);
+        }
+        return sum;
+    }
+
+}
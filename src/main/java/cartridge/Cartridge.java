@@ -1,56 +1,164 @@
 package cartridge;
 
+import cartridge.components.BankStatistics;
+import cartridge.components.Battery;
+import cartridge.components.RomCoverage;
+import cartridge.components.RealTimeClock;
+import cartridge.constants.CartridgeConstants;
+import cartridge.debug.WatchListener;
+import cartridge.debug.Watchpoint;
+import cartridge.debug.WatchpointTable;
 import cartridge.exceptions.InvalidCartridgeException;
 import cartridge.header.Header;
 import cartridge.interfaces.ExternalMemory;
 import cartridge.interfaces.MemoryBankController;
+import cartridge.interfaces.PageTracked;
 import cartridge.interfaces.ReadOnlyMemory;
+import cartridge.ram.CopyOnWriteSRAM;
+import cartridge.ram.MBC2RAM;
+import cartridge.ram.MappedSRAM;
+import cartridge.ram.OffHeapSRAM;
+import cartridge.ram.RamBacking;
 import cartridge.ram.SRAM;
+import cartridge.ram.SramPool;
+import cartridge.rewind.RewindBuffer;
 import cartridge.rom.ROM;
+import cartridge.util.RomIntegrity;
 import shared.Addressable;
+import shared.Bus;
 import cartridge.mbc.*;
 import cartridge.header.enums.*;
 
-public class Cartridge implements Addressable {
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class Cartridge implements Addressable, AutoCloseable {
     private final Header header_;
     private final ReadOnlyMemory rom_;
     private final MemoryBankController mbc_;
     private final ExternalMemory ram_;
+    private final RealTimeClock rtc_;
+    private final Battery battery_;
+    private final WatchpointTable watchpoints_;
+
+    private Bus bus_;
+    private RewindBuffer rewind_;     // null until enabled
+    private BankStatistics statistics_;
+    private ObjectName statistics_name_;
+    private RomCoverage coverage_;    // null = off
+
+    // Paged snapshot of a flat RAM that forks share, refreshed from the pages written since fork_generation_
+    private CopyOnWriteSRAM fork_base_;
+    private long fork_generation_;
 
     public Cartridge(byte[] rom_data) {
-        this.rom_ = new ROM(rom_data);
-        this.header_ = Header.parse(rom_data);
+        this(new ROM(rom_data));
+    }
+
+    // Any ROM backing (heap, mapped), header is read through the interface
+    public Cartridge(ReadOnlyMemory rom) {
+        this(rom, null);
+    }
+
+    // Battery backed cartridges map their RAM onto save_path, null = RAM placed by -Dcartridge.ram (heap by default)
+    public Cartridge(ReadOnlyMemory rom, Path save_path) {
+        this(rom, save_path, RamBacking.fromSystemProperty());
+    }
+
+    // ram_backing only applies to RAM without a save file, OFF_HEAP RAM is returned to its pool by close()
+    public Cartridge(ReadOnlyMemory rom, Path save_path, RamBacking ram_backing) {
+        if (rom == null) { throw new IllegalArgumentException("ROM null"); }
+
+        this.rom_ = rom;
+        this.header_ = Header.parse(rom);
 
-        if (!header_.isHeaderChecksumValid(rom_data)) { throw new InvalidCartridgeException("Header checksum invalid"); }
+        if (!header_.isHeaderChecksumValid(rom)) { throw new InvalidCartridgeException("Header checksum invalid"); }
         if (!header_.isNintendoLogoValid()) { throw new InvalidCartridgeException("Logo invalid"); }
 
-        this.ram_ = createRam(header_);
-        this.mbc_ = createMbc(header_, rom_, ram_);
+        if (ram_backing == null) { throw new IllegalArgumentException("RAM backing null"); }
 
-        // TODO: RTC
+        this.ram_ = createRam(header_, save_path, ram_backing);
+        this.rtc_ = header_.hasRtc() ? new RealTimeClock() : null;
+        this.mbc_ = createMbc(header_, rom_, ram_, rtc_);
 
-        // TODO: Battery
+        boolean has_save = header_.hasBattery() && (ram_ != null || rtc_ != null) && save_path != null;
+        this.battery_ = has_save ? new Battery(save_path, ram_, rtc_) : null;
+        this.watchpoints_ = new WatchpointTable();
     }
 
-    private ExternalMemory createRam(Header h) {
+    // Fork, shares header and ROM, RAM pages are copy-on-write, no battery
+    private Cartridge(Cartridge parent, ExternalMemory ram) {
+        this.rom_ = parent.rom_;
+        this.header_ = parent.header_;
+        this.ram_ = ram;
+
+        // direct copy, the save format rounds to seconds and adds offline time on load
+        this.rtc_ = parent.rtc_ != null ? parent.rtc_.copy() : null;
+
+        this.mbc_ = createMbc(header_, rom_, ram_, rtc_);
+
+        // registers through the fixed size state, a few bytes
+        ByteBuffer mbc_state = ByteBuffer.allocate(parent.mbc_.getStateSize());
+        parent.mbc_.saveState(mbc_state);
+        this.mbc_.loadState(mbc_state.flip());
+
+        // creating the MBC reset the RAM latch
+        if (ram_ != null) {
+            ram_.selectBank(parent.ram_.getCurrentBank());
+            ram_.setEnabled(parent.ram_.isEnabled());
+        }
+
+        this.battery_ = null;
+        this.watchpoints_ = new WatchpointTable();
+    }
+
+    private ExternalMemory createRam(Header h, Path save_path, RamBacking ram_backing) {
         if (!h.hasRam()) { return null; }
 
+        // MBC2 has its RAM built in, the header RAM size is 0
+        if (h.cartridge_type() == CartridgeType.MBC2 || h.cartridge_type() == CartridgeType.MBC2_BATTERY) {
+            return new MBC2RAM();
+        }
+
         int ram_size = h.ram_size().size_in_bytes;
 
         if (ram_size == 0) { return null; }
 
-        // Only Standard Ram
-        // TODO: Handle otehr Ram types for the other Memory Bank Controllers
+        if (h.hasBattery() && save_path != null) {
+            try {
+                return MappedSRAM.open(save_path, ram_size);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Save file could not be mapped", e);
+            }
+        }
+
+        if (ram_backing == RamBacking.OFF_HEAP) {
+            return SramPool.shared().allocate(ram_size);
+        }
 
         return new SRAM(ram_size);
     }
 
-    private MemoryBankController createMbc(Header h, ReadOnlyMemory rom, ExternalMemory ram) {
+    private MemoryBankController createMbc(Header h, ReadOnlyMemory rom, ExternalMemory ram, RealTimeClock rtc) {
         CartridgeType type = h.cartridge_type();
 
         return switch (type) {
             case ROM_ONLY, ROM_RAM, ROM_RAM_BATTERY -> new MBC0(rom, ram);
             case MBC1, MBC1_RAM, MBC1_RAM_BATTERY -> new MBC1(rom, ram);
+            case MBC2, MBC2_BATTERY -> new MBC2(rom, ram);
+            case MBC3, MBC3_RAM, MBC3_RAM_BATTERY,
+                 MBC3_TIMER_BATTERY, MBC3_TIMER_RAM_BATTERY -> new MBC3(rom, ram, rtc);
+            case MBC5, MBC5_RAM, MBC5_RAM_BATTERY,
+                 MBC5_RUMBLE, MBC5_RUMBLE_RAM, MBC5_RUMBLE_RAM_BATTERY -> new MBC5(rom, ram, h.hasRumble());
 
             // TODO: Implement other MBCs
 
@@ -60,15 +168,63 @@ public class Cartridge implements Addressable {
 
     @Override
     public int read(int address) {
+        int value;
+
         if (address >= 0x0000 && address <= 0x7FFF) {
-            return mbc_.readRom(address);
+            value = mbc_.readRom(address);
         }
         else if (address >= 0xA000 && address <= 0xBFFF) {
-            return mbc_.readRam(address);
+            value = mbc_.readRam(address);
+        }
+        else {
+            // not a cartridge address
+            return 0xFF;
+        }
+
+        // one bit test, listeners only run for watched pages
+        if (watchpoints_.isReadWatched(address)) {
+            watchpoints_.notify(address, bankAt(address), value, false);
         }
 
-        // not a cartridge address
-        return 0xFF;
+        return value;
+    }
+
+    // One MBC call per contiguous region instead of one dispatch per byte
+    @Override
+    public void readBlock(int address, byte[] dst, int offset, int length) {
+        while (length > 0) {
+            int span;
+
+            if (address >= 0x0000 && address <= 0x7FFF) {
+                span = Math.min(length, 0x8000 - address);
+                mbc_.readRomBlock(address, dst, offset, span);
+            }
+            else if (address >= 0xA000 && address <= 0xBFFF) {
+                span = Math.min(length, 0xC000 - address);
+                mbc_.readRamBlock(address, dst, offset, span);
+            }
+            else {
+                // not a cartridge address
+                span = (address >= 0x8000 && address < 0xA000) ? Math.min(length, 0xA000 - address) : length;
+                Arrays.fill(dst, offset, offset + span, (byte) 0xFF);
+            }
+
+            if (!watchpoints_.isEmpty()) {
+                notifyBlock(address, dst, offset, span);
+            }
+
+            address += span;
+            offset += span;
+            length -= span;
+        }
+    }
+
+    private void notifyBlock(int address, byte[] dst, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (watchpoints_.isReadWatched(address + i)) {
+                watchpoints_.notify(address + i, bankAt(address + i), Byte.toUnsignedInt(dst[offset + i]), false);
+            }
+        }
     }
 
     @Override
@@ -76,12 +232,34 @@ public class Cartridge implements Addressable {
         if (address >= 0x0000 && address <= 0x7FFF) {
             // ROM W to MBC
             mbc_.writeRom(address, value);
+
+            // Control register write may have switched banks
+            if (bus_ != null) {
+                refreshBusPages();
+            }
         }
         else if (address >= 0xA000 && address <= 0xBFFF) {
             mbc_.writeRam(address, value);
         }
+        else {
+            // not a cartridge address
+            return;
+        }
 
-        // not a cartridge address
+        if (watchpoints_.isWriteWatched(address)) {
+            watchpoints_.notify(address, bankAt(address), value & 0xFF, true);
+        }
+    }
+
+    // Bank the MBC currently maps at a cartridge address
+    private int bankAt(int address) {
+        if (address < 0x4000) {
+            return mbc_.getRomBank0Base() / CartridgeConstants.ROM_BANK_SIZE;
+        }
+        if (address < 0x8000) {
+            return mbc_.getRomBankNBase() / CartridgeConstants.ROM_BANK_SIZE;
+        }
+        return mbc_.getCurrentRamBank();
     }
 
     @Override
@@ -93,7 +271,12 @@ public class Cartridge implements Addressable {
     @Override
     public void tick(int cycles) {
         mbc_.tick(cycles);
-        // TODO: Tick RTC for mbc3
+        // RTC is derived from wall-clock time when latched, no ticking
+    }
+
+    @Override
+    public boolean needsTick() {
+        return mbc_.needsTick();
     }
 
     @Override
@@ -104,7 +287,69 @@ public class Cartridge implements Addressable {
             ram_.reset();
         }
 
-        // TODO: Reset RTC
+        // RTC is battery backed, keeps running across resets
+
+        if (bus_ != null) {
+            refreshBusPages();
+        }
+    }
+
+    // Registers the cartridge ranges once, reads of mapped banks then skip the cartridge entirely
+    public void attach(Bus bus) {
+        if (bus == null) { throw new IllegalArgumentException("Bus null"); }
+
+        bus.map(CartridgeConstants.ROM_BANK_0_START, CartridgeConstants.ROM_BANK_N_END, this);
+        bus.map(CartridgeConstants.RAM_START, CartridgeConstants.RAM_END, this);
+
+        this.bus_ = bus;
+        refreshBusPages();
+    }
+
+    private void refreshBusPages() {
+        // counted accesses have to reach the MBC
+        if (statistics_ != null) {
+            bus_.clearDirect(CartridgeConstants.ROM_BANK_0_START, CartridgeConstants.ROM_BANK_N_END);
+            bus_.clearDirect(CartridgeConstants.RAM_START, CartridgeConstants.RAM_END);
+            return;
+        }
+
+        // covered reads have to reach the MBC, RAM stays direct
+        if (coverage_ != null) {
+            bus_.clearDirect(CartridgeConstants.ROM_BANK_0_START, CartridgeConstants.ROM_BANK_N_END);
+        } else {
+            mapRomBank(CartridgeConstants.ROM_BANK_0_START, CartridgeConstants.ROM_BANK_0_END, mbc_.getRomBank0Base());
+            mapRomBank(CartridgeConstants.ROM_BANK_N_START, CartridgeConstants.ROM_BANK_N_END, mbc_.getRomBankNBase());
+        }
+
+        int ram_base = mbc_.getRamBankBase();
+        if (ram_base >= 0) {
+            bus_.mapDirectRead(CartridgeConstants.RAM_START, CartridgeConstants.RAM_END, ram_.getData(), ram_base);
+        } else {
+            bus_.clearDirect(CartridgeConstants.RAM_START, CartridgeConstants.RAM_END);
+        }
+
+        // watched pages go through read() so listeners see them, everything else stays direct
+        for (int word = 0; word < WatchpointTable.PAGE_COUNT >>> 6; word++) {
+            long pages = watchpoints_.getReadWatchedPages(word);
+
+            while (pages != 0) {
+                int start = ((word << 6) + Long.numberOfTrailingZeros(pages)) << WatchpointTable.PAGE_SHIFT;
+                bus_.clearDirect(start, start + 0xFF);
+                pages &= pages - 1;
+            }
+        }
+    }
+
+    // Bank array of the ROM (whole image, or base slice / private copy of a patched ROM), banks without one go through read()
+    private void mapRomBank(int start, int end, int physical_base) {
+        int bank = physical_base / CartridgeConstants.ROM_BANK_SIZE;
+        byte[] data = rom_.getBankArray(bank);
+
+        if (data != null) {
+            bus_.mapDirectRead(start, end, data, rom_.getBankArrayOffset(bank));
+        } else {
+            bus_.clearDirect(start, end);
+        }
     }
 
     @Override
@@ -112,14 +357,322 @@ public class Cartridge implements Addressable {
         return "Cartridge[" + header_.title() + "]";
     }
 
-    // TODO: Implement when battery ready
-    public void save() {
+    // Mapped RAM only syncs the pages touched since the last save
+    public void save() throws IOException {
+        if (battery_ == null) {
+            return; // nothing to persist
+        }
+
+        battery_.save();
+    }
+
+    public void load() throws IOException {
+        if (battery_ == null) {
+            return;
+        }
+
+        battery_.load();
+    }
+
+    // Independent cartridge in the current state. ROM is shared, RAM pages are shared until either side writes them,
+    // so a branch only costs the pages it changes. Forks of a fork are O(1). The first fork of a flat RAM copies it
+    // once, later forks only copy the 256 byte pages written since the previous fork. The fork has no save file, bus, watchpoints or statistics.
+    public Cartridge fork() {
+        ExternalMemory ram = null;
+
+        if (ram_ instanceof CopyOnWriteSRAM cow) {
+            ram = cow.fork();
+        } else if (ram_ instanceof MBC2RAM mbc2_ram) {
+            ram = mbc2_ram.copy(); // 256 bytes, cheaper than paging
+        } else if (ram_ != null) {
+            ram = forkBase().fork();
+        }
+
+        return new Cartridge(this, ram);
+    }
+
+    // Heap, mapped and off-heap RAM track page generations, only the first fork copies the whole RAM
+    private CopyOnWriteSRAM forkBase() {
+        if (fork_base_ == null) {
+            fork_base_ = CopyOnWriteSRAM.copyOf(ram_);
+        } else if (ram_ instanceof PageTracked tracked) {
+            long[] pages = new long[(tracked.getPageCount() + 63) >>> 6];
+            tracked.getDirtyPagesSince(fork_generation_, pages);
+            fork_base_.syncPages(ram_, pages);
+        } else {
+            fork_base_.syncFrom(ram_);
+        }
+
+        if (ram_ instanceof PageTracked tracked) {
+            fork_generation_ = tracked.checkpoint();
+        }
 
+        return fork_base_;
     }
 
-    // TODO: Implement when battery ready
-    public void load() {
+    // Unregisters statistics and returns off-heap RAM to its pool, the cartridge must not be used afterwards.
+    // Does not save, call save() first for battery backed cartridges.
+    @Override
+    public void close() {
+        disableStatistics();
+
+        if (ram_ instanceof OffHeapSRAM off_heap) {
+            off_heap.release();
+        }
+    }
 
+    public Battery getBattery() {
+        return battery_;
+    }
+
+    // Exact size of a snapshot, allocate the buffer once and reuse it
+    public int getStateSize() {
+        int size = CartridgeConstants.SAVE_STATE_HEADER_SIZE + mbc_.getStateSize();
+
+        if (ram_ != null) {
+            size += ram_.getStateSize();
+        }
+        if (rtc_ != null) {
+            size += RealTimeClock.SAVE_SIZE;
+        }
+
+        return size;
+    }
+
+    // Versioned binary snapshot at the buffer position, no allocation
+    public void saveState(ByteBuffer buffer) {
+        if (buffer.remaining() < getStateSize()) { throw new IllegalArgumentException("Buffer too small for save state: " + buffer.remaining() + " < " + getStateSize()); }
+
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+
+        // magic, version, type, flags, ROM identity
+        buffer.putInt(CartridgeConstants.SAVE_STATE_MAGIC);
+        buffer.putShort((short) CartridgeConstants.SAVE_STATE_VERSION);
+        buffer.put((byte) header_.cartridge_type().value);
+        buffer.put((byte) ((ram_ != null ? 0x01 : 0) | (rtc_ != null ? 0x02 : 0)));
+        buffer.putInt(rom_.getSize());
+        buffer.putShort((short) header_.global_checksum());
+        buffer.put((byte) header_.header_checksum());
+        buffer.put((byte) 0); // reserved
+
+        mbc_.saveState(buffer);
+
+        if (ram_ != null) {
+            ram_.saveState(buffer);
+        }
+        if (rtc_ != null) {
+            rtc_.save(buffer);
+        }
+
+        buffer.order(order);
+    }
+
+    public void loadState(ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+
+        try {
+            if (buffer.remaining() < CartridgeConstants.SAVE_STATE_HEADER_SIZE) { throw new IllegalArgumentException("Save state truncated"); }
+            if (buffer.getInt() != CartridgeConstants.SAVE_STATE_MAGIC) { throw new IllegalArgumentException("Not a cartridge save state"); }
+
+            int version = buffer.getShort() & 0xFFFF;
+            if (version != CartridgeConstants.SAVE_STATE_VERSION) { throw new IllegalArgumentException("Unsupported save state version: " + version); }
+
+            int type = buffer.get() & 0xFF;
+            int flags = buffer.get() & 0xFF;
+            int rom_size = buffer.getInt();
+            int global_checksum = buffer.getShort() & 0xFFFF;
+            int header_checksum = buffer.get() & 0xFF;
+            buffer.get(); // reserved
+
+            boolean same_cartridge = type == header_.cartridge_type().value
+                    && rom_size == rom_.getSize()
+                    && global_checksum == header_.global_checksum()
+                    && header_checksum == header_.header_checksum();
+            if (!same_cartridge) { throw new IllegalArgumentException("Save state belongs to another cartridge"); }
+
+            if (((flags & 0x01) != 0) != (ram_ != null) || ((flags & 0x02) != 0) != (rtc_ != null)) { throw new IllegalArgumentException("Save state layout mismatch"); }
+            if (buffer.remaining() < getStateSize() - CartridgeConstants.SAVE_STATE_HEADER_SIZE) { throw new IllegalArgumentException("Save state truncated"); }
+
+            mbc_.loadState(buffer);
+
+            if (ram_ != null) {
+                ram_.loadState(buffer);
+            }
+            if (rtc_ != null) {
+                rtc_.load(buffer);
+            }
+        } finally {
+            buffer.order(order);
+        }
+
+        if (bus_ != null) {
+            refreshBusPages();
+        }
+    }
+
+    // Keeps up to max_frames of history within memory_budget bytes, a full copy every keyframe_interval frames
+    public void enableRewind(int max_frames, int keyframe_interval, int memory_budget) {
+        this.rewind_ = new RewindBuffer(mbc_, ram_, max_frames, keyframe_interval, memory_budget);
+    }
+
+    public void disableRewind() {
+        this.rewind_ = null;
+    }
+
+    // Once per frame, only the registers and RAM bytes that changed are stored
+    public void captureFrame() {
+        if (rewind_ == null) { throw new IllegalStateException("Rewind not enabled"); }
+
+        rewind_.capture();
+    }
+
+    // RTC is not rewound, it follows wall-clock time
+    public int rewind(int frames) {
+        if (rewind_ == null) { throw new IllegalStateException("Rewind not enabled"); }
+
+        int rewound = rewind_.rewind(frames);
+
+        if (bus_ != null) {
+            refreshBusPages();
+        }
+
+        return rewound;
+    }
+
+    public int getRewindFrames() {
+        return rewind_ != null ? rewind_.getFrameCount() : 0;
+    }
+
+    public RewindBuffer getRewindBuffer() {
+        return rewind_;
+    }
+
+    // Per-bank counters, registered as cartridge:type=BankStatistics MBean on the platform server.
+    // Bus direct pages are off while enabled so every access is counted.
+    public BankStatistics enableStatistics() {
+        if (statistics_ != null) {
+            return statistics_;
+        }
+
+        BankStatistics statistics = new BankStatistics(rom_.getBankCount(), ram_ != null ? ram_.getBankCount() : 0);
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("cartridge:type=BankStatistics,name=" + ObjectName.quote(header_.title()) + ",id=" + Integer.toHexString(System.identityHashCode(this)));
+            server.registerMBean(statistics, name);
+            this.statistics_name_ = name;
+        } catch (JMException e) {
+            throw new IllegalStateException("Statistics MBean could not be registered", e);
+        }
+
+        this.statistics_ = statistics;
+        mbc_.setStatistics(statistics);
+        if (ram_ != null) {
+            ram_.setStatistics(statistics);
+        }
+
+        if (bus_ != null) {
+            refreshBusPages();
+        }
+
+        return statistics;
+    }
+
+    public void disableStatistics() {
+        if (statistics_ == null) {
+            return;
+        }
+
+        mbc_.setStatistics(null);
+        if (ram_ != null) {
+            ram_.setStatistics(null);
+        }
+        this.statistics_ = null;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(statistics_name_);
+        } catch (JMException e) {
+            // already gone
+        }
+        this.statistics_name_ = null;
+
+        if (bus_ != null) {
+            refreshBusPages();
+        }
+    }
+
+    // Listener is called for accesses in [start, end] (CPU addresses), bank = -1 for any bank
+    public Watchpoint watch(int start, int end, int bank, boolean on_read, boolean on_write, WatchListener listener) {
+        Watchpoint watchpoint = new Watchpoint(start, end, bank, on_read, on_write, listener);
+        watchpoints_.add(watchpoint);
+
+        if (bus_ != null) {
+            refreshBusPages();
+        }
+        return watchpoint;
+    }
+
+    public Watchpoint watch(int start, int end, boolean on_read, boolean on_write, WatchListener listener) {
+        return watch(start, end, Watchpoint.ANY_BANK, on_read, on_write, listener);
+    }
+
+    public void unwatch(Watchpoint watchpoint) {
+        if (watchpoints_.remove(watchpoint) && bus_ != null) {
+            refreshBusPages();
+        }
+    }
+
+    public void clearWatchpoints() {
+        watchpoints_.clear();
+
+        if (bus_ != null) {
+            refreshBusPages();
+        }
+    }
+
+    public List<Watchpoint> getWatchpoints() {
+        return watchpoints_.getWatchpoints();
+    }
+
+    // Records every ROM byte read from now on, ROM bus pages go through the MBC while enabled
+    public RomCoverage enableCoverage() {
+        if (coverage_ == null) {
+            coverage_ = new RomCoverage(rom_.getSize());
+            mbc_.setCoverage(coverage_);
+
+            if (bus_ != null) {
+                refreshBusPages();
+            }
+        }
+        return coverage_;
+    }
+
+    public void disableCoverage() {
+        if (coverage_ == null) {
+            return;
+        }
+
+        mbc_.setCoverage(null);
+        coverage_ = null;
+
+        if (bus_ != null) {
+            refreshBusPages();
+        }
+    }
+
+    public RomCoverage getCoverage() {
+        return coverage_;
+    }
+
+    public BankStatistics getStatistics() {
+        return statistics_;
+    }
+
+    // Global checksum, CRC32 and SHA-1, not checked on construction since real hardware boots with a bad global checksum
+    public RomIntegrity.Result verifyIntegrity() {
+        return RomIntegrity.verify(rom_);
     }
 
     public Header getHeader() {
@@ -146,6 +699,10 @@ public class Cartridge implements Addressable {
         return mbc_;
     }
 
+    public RealTimeClock getRtc() {
+        return rtc_;
+    }
+
     @Override
     public String toString() {
         return String.format(
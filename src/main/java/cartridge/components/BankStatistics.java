@@ -0,0 +1,138 @@
+package cartridge.components;
+
+import java.util.Arrays;
+
+// Per-bank access counters, written by the emulation thread only (plain long arrays, no locks).
+// JMX readers may see values a few accesses old, reset() from another thread can lose in-flight increments.
+public class BankStatistics implements BankStatisticsMXBean {
+
+    public static final int REGISTER_RANGES = 4;    // 0x0000-0x1FFF, 0x2000-0x3FFF, 0x4000-0x5FFF, 0x6000-0x7FFF
+
+    private final long[] rom_reads_;
+    private final long[] ram_reads_;
+    private final long[] ram_writes_;
+    private final long[] register_writes_;
+    private final long[] bank_switches_;    // register writes that changed a mapped bank
+    private long disabled_ram_reads_;
+    private long disabled_ram_writes_;
+
+    public BankStatistics(int rom_bank_count, int ram_bank_count) {
+        if (rom_bank_count <= 0) { throw new IllegalArgumentException("rom_bank_count must be positive"); }
+        if (ram_bank_count < 0) { throw new IllegalArgumentException("ram_bank_count Negative"); }
+
+        this.rom_reads_ = new long[rom_bank_count];
+        this.ram_reads_ = new long[Math.max(1, ram_bank_count)];    // 2 KiB RAM still has one bank
+        this.ram_writes_ = new long[Math.max(1, ram_bank_count)];
+        this.register_writes_ = new long[REGISTER_RANGES];
+        this.bank_switches_ = new long[REGISTER_RANGES];
+    }
+
+    public void romRead(int bank) {
+        rom_reads_[bank]++;
+    }
+
+    public void romRead(int bank, int count) {
+        rom_reads_[bank] += count;
+    }
+
+    public void ramRead(int bank) {
+        ram_reads_[bank]++;
+    }
+
+    public void ramRead(int bank, int count) {
+        ram_reads_[bank] += count;
+    }
+
+    public void ramWrite(int bank) {
+        ram_writes_[bank]++;
+    }
+
+    // address = 0x0000-0x7FFF, switched = the write changed the ROM or RAM mapping
+    public void registerWrite(int address, boolean switched) {
+        int range = (address >>> 13) & 0x03;
+        register_writes_[range]++;
+        if (switched) {
+            bank_switches_[range]++;
+        }
+    }
+
+    public void disabledRamRead() {
+        disabled_ram_reads_++;
+    }
+
+    public void disabledRamRead(int count) {
+        disabled_ram_reads_ += count;
+    }
+
+    public void disabledRamWrite() {
+        disabled_ram_writes_++;
+    }
+
+    @Override
+    public long[] getRomBankReads() {
+        return rom_reads_.clone();
+    }
+
+    @Override
+    public long[] getRamBankReads() {
+        return ram_reads_.clone();
+    }
+
+    @Override
+    public long[] getRamBankWrites() {
+        return ram_writes_.clone();
+    }
+
+    @Override
+    public long[] getRegisterWrites() {
+        return register_writes_.clone();
+    }
+
+    @Override
+    public long[] getBankSwitches() {
+        return bank_switches_.clone();
+    }
+
+    @Override
+    public long getTotalBankSwitches() {
+        long total = 0;
+        for (long count : bank_switches_) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public long getDisabledRamReads() {
+        return disabled_ram_reads_;
+    }
+
+    @Override
+    public long getDisabledRamWrites() {
+        return disabled_ram_writes_;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(rom_reads_, 0);
+        Arrays.fill(ram_reads_, 0);
+        Arrays.fill(ram_writes_, 0);
+        Arrays.fill(register_writes_, 0);
+        Arrays.fill(bank_switches_, 0);
+        disabled_ram_reads_ = 0;
+        disabled_ram_writes_ = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "bank_statistics{rom_banks=%d, ram_banks=%d, bank_switches=%d, disabled_ram_reads=%d, disabled_ram_writes=%d}",
+                rom_reads_.length,
+                ram_reads_.length,
+                getTotalBankSwitches(),
+                disabled_ram_reads_,
+                disabled_ram_writes_
+        );
+    }
+
+}
@@ -0,0 +1,24 @@
+package cartridge.components;
+
+// JMX view of BankStatistics, arrays are indexed by bank / register range (0x0000, 0x2000, 0x4000, 0x6000)
+public interface BankStatisticsMXBean {
+
+    long[] getRomBankReads();
+
+    long[] getRamBankReads();
+
+    long[] getRamBankWrites();
+
+    long[] getRegisterWrites();
+
+    long[] getBankSwitches();
+
+    long getTotalBankSwitches();
+
+    long getDisabledRamReads();
+
+    long getDisabledRamWrites();
+
+    void reset();
+
+}
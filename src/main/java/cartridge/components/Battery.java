@@ -1,4 +1,135 @@
 package cartridge.components;
 
+import cartridge.interfaces.ExternalMemory;
+import cartridge.ram.MappedSRAM;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Keeps battery backed RAM (and the RTC after it) in a .sav file
 public class Battery {
+
+    private final Path save_path_;
+    private final ExternalMemory ram_;  // null for timer only cartridges
+    private final RealTimeClock rtc_;   // null without timer
+
+    public Battery(Path save_path, ExternalMemory ram) {
+        this(save_path, ram, null);
+    }
+
+    public Battery(Path save_path, ExternalMemory ram, RealTimeClock rtc) {
+        if (save_path == null) { throw new IllegalArgumentException("save_path null"); }
+        if (ram == null && rtc == null) { throw new IllegalArgumentException("Battery without RAM or RTC"); }
+
+        this.save_path_ = save_path;
+        this.ram_ = ram;
+        this.rtc_ = rtc;
+    }
+
+    public void save() throws IOException {
+        if (ram_ != null) {
+            saveRam();
+        }
+
+        if (rtc_ != null) {
+            saveRtc();
+        }
+    }
+
+    private void saveRam() throws IOException {
+        // mapped RAM already lives in the file, only touched pages need a sync
+        if (ram_ instanceof MappedSRAM mapped) {
+            mapped.flush();
+            return;
+        }
+
+        Files.write(save_path_, ram_.hasArray() ? ram_.getData() : readPhysical(ram_));
+    }
+
+    // Packed or paged RAM, one byte per physical address
+    private static byte[] readPhysical(ExternalMemory ram) {
+        byte[] data = new byte[ram.getSize()];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ram.readPhysical(i);
+        }
+        return data;
+    }
+
+    // RTC trailer directly after the RAM
+    private void saveRtc() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RealTimeClock.SAVE_SIZE);
+        rtc_.save(buffer);
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(save_path_, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long position = getRtcOffset();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+
+    public void load() throws IOException {
+        if (!Files.exists(save_path_)) {
+            return; // first run
+        }
+
+        if (ram_ != null && !(ram_ instanceof MappedSRAM)) {
+            loadRam();
+        }
+
+        if (rtc_ != null) {
+            loadRtc();
+        }
+    }
+
+    private void loadRam() throws IOException {
+        byte[] data = Files.readAllBytes(save_path_);
+        if (data.length < ram_.getSize()) { throw new IOException("Save file too small: " + data.length + " < " + ram_.getSize()); }
+
+        ram_.loadData(data);
+    }
+
+    private void loadRtc() throws IOException {
+        try (FileChannel channel = FileChannel.open(save_path_, StandardOpenOption.READ)) {
+            long offset = getRtcOffset();
+            if (channel.size() < offset + RealTimeClock.SAVE_SIZE) {
+                return; // older save without clock
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(RealTimeClock.SAVE_SIZE);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) { throw new IOException("Unexpected end of save file"); }
+            }
+            buffer.flip();
+
+            rtc_.load(buffer);
+        }
+    }
+
+    private long getRtcOffset() {
+        return ram_ != null ? ram_.getSize() : 0;
+    }
+
+    public boolean isMapped() {
+        return ram_ instanceof MappedSRAM;
+    }
+
+    public boolean hasRtc() {
+        return rtc_ != null;
+    }
+
+    public Path getSavePath() {
+        return save_path_;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("battery{path='%s', mapped=%s, rtc=%s}", save_path_, isMapped(), hasRtc());
+    }
+
 }
@@ -1,4 +1,229 @@
 package cartridge.components;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.LongSupplier;
+
+// MBC3 clock, derived from wall-clock time on latch / register access instead of ticked every cycle
 public class RealTimeClock {
+
+    // Register select values (0x4000-0x5FFF)
+    public static final int SECONDS = 0x08;
+    public static final int MINUTES = 0x09;
+    public static final int HOURS = 0x0A;
+    public static final int DAYS_LOW = 0x0B;
+    public static final int DAYS_HIGH = 0x0C;   // bit 0 = day bit 8, bit 6 = halt, bit 7 = day carry
+
+    // 5 x current + 5 x latched registers (u32) + unix timestamp (u64), common .sav trailer layout
+    public static final int SAVE_SIZE = 48;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long DAY_OVERFLOW_MILLIS = 512 * MILLIS_PER_DAY;    // 9 bit day counter
+
+    private final LongSupplier clock_millis_;
+
+    private long base_millis_;      // wall-clock time at which the counter was zero
+    private long halted_millis_;    // counter value while halted
+    private boolean halted_;
+    private boolean carry_;
+
+    private final int[] latched_;
+
+    public RealTimeClock() {
+        this(System::currentTimeMillis);
+    }
+
+    // Custom time source, headless runs and tests
+    public RealTimeClock(LongSupplier clock_millis) {
+        if (clock_millis == null) { throw new IllegalArgumentException("Clock null"); }
+
+        this.clock_millis_ = clock_millis;
+        this.base_millis_ = clock_millis.getAsLong();
+        this.halted_millis_ = 0;
+        this.halted_ = false;
+        this.carry_ = false;
+        this.latched_ = new int[5];
+    }
+
+    // Independent copy on the same time source, counter and latched registers exact to the millisecond
+    public RealTimeClock copy() {
+        RealTimeClock copy = new RealTimeClock(clock_millis_);
+        copy.base_millis_ = base_millis_;
+        copy.halted_millis_ = halted_millis_;
+        copy.halted_ = halted_;
+        copy.carry_ = carry_;
+        System.arraycopy(latched_, 0, copy.latched_, 0, latched_.length);
+        return copy;
+    }
+
+    // Copies the current time into the registers the game reads
+    public void latch() {
+        long elapsed = elapsedMillis(clock_millis_.getAsLong());
+
+        latched_[0] = registerValue(SECONDS, elapsed);
+        latched_[1] = registerValue(MINUTES, elapsed);
+        latched_[2] = registerValue(HOURS, elapsed);
+        latched_[3] = registerValue(DAYS_LOW, elapsed);
+        latched_[4] = registerValue(DAYS_HIGH, elapsed);
+    }
+
+    public int read(int register) {
+        if (register < SECONDS || register > DAYS_HIGH) {
+            return 0xFF;
+        }
+        return latched_[register - SECONDS];
+    }
+
+    public void write(int register, int value) {
+        if (register < SECONDS || register > DAYS_HIGH) {
+            return;
+        }
+
+        long now = clock_millis_.getAsLong();
+        long elapsed = elapsedMillis(now);
+
+        long sub_second = elapsed % 1000;
+        long total_seconds = elapsed / 1000;
+        long seconds = total_seconds % 60;
+        long minutes = (total_seconds / 60) % 60;
+        long hours = (total_seconds / 3600) % 24;
+        long days = total_seconds / 86400;
+
+        // Out of range values (e.g. 60-63 seconds) are folded into the counter instead of emulating invalid ticks
+        switch (register) {
+            case SECONDS -> {
+                seconds = value & 0x3F;
+                sub_second = 0; // writing seconds resets the prescaler
+            }
+            case MINUTES -> minutes = value & 0x3F;
+            case HOURS -> hours = value & 0x1F;
+            case DAYS_LOW -> days = (days & 0x100) | (value & 0xFF);
+            default -> {
+                days = (days & 0xFF) | ((long) (value & 0x01) << 8);
+                carry_ = (value & 0x80) != 0;
+                halted_ = (value & 0x40) != 0;
+            }
+        }
+
+        long updated = ((((days * 24 + hours) * 60 + minutes) * 60 + seconds) * 1000) + sub_second;
+        setElapsedMillis(now, updated);
+    }
+
+    private long elapsedMillis(long now) {
+        long elapsed = halted_ ? halted_millis_ : now - base_millis_;
+
+        if (elapsed < 0) {
+            elapsed = 0; // clock moved backwards
+        }
+
+        // day counter overflow, carry stays set until the game clears it
+        if (elapsed >= DAY_OVERFLOW_MILLIS) {
+            carry_ = true;
+            elapsed %= DAY_OVERFLOW_MILLIS;
+            setElapsedMillis(now, elapsed);
+        }
+
+        return elapsed;
+    }
+
+    private void setElapsedMillis(long now, long elapsed) {
+        if (halted_) {
+            halted_millis_ = elapsed;
+        } else {
+            base_millis_ = now - elapsed;
+        }
+    }
+
+    private int registerValue(int register, long elapsed) {
+        long total_seconds = elapsed / 1000;
+        int days = (int) (total_seconds / 86400);
+
+        return switch (register) {
+            case SECONDS -> (int) (total_seconds % 60);
+            case MINUTES -> (int) ((total_seconds / 60) % 60);
+            case HOURS -> (int) ((total_seconds / 3600) % 24);
+            case DAYS_LOW -> days & 0xFF;
+            default -> ((days >>> 8) & 0x01) | (halted_ ? 0x40 : 0) | (carry_ ? 0x80 : 0);
+        };
+    }
+
+    public boolean isHalted() {
+        return halted_;
+    }
+
+    public boolean hasDayCarry() {
+        return carry_;
+    }
+
+    public long getElapsedSeconds() {
+        return elapsedMillis(clock_millis_.getAsLong()) / 1000;
+    }
+
+    public void save(ByteBuffer buffer) {
+        if (buffer.remaining() < SAVE_SIZE) { throw new IllegalArgumentException("Buffer too small for RTC"); }
+
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        long now = clock_millis_.getAsLong();
+        long elapsed = elapsedMillis(now);
+
+        for (int register = SECONDS; register <= DAYS_HIGH; register++) {
+            buffer.putInt(registerValue(register, elapsed));
+        }
+        for (int value : latched_) {
+            buffer.putInt(value);
+        }
+        buffer.putLong(now / 1000);
+
+        buffer.order(order);
+    }
+
+    // Time the emulator was not running is added unless the clock was halted
+    public void load(ByteBuffer buffer) {
+        if (buffer.remaining() < SAVE_SIZE) { throw new IllegalArgumentException("Buffer too small for RTC"); }
+
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        int seconds = buffer.getInt() & 0xFF;
+        int minutes = buffer.getInt() & 0xFF;
+        int hours = buffer.getInt() & 0xFF;
+        int days_low = buffer.getInt() & 0xFF;
+        int days_high = buffer.getInt() & 0xFF;
+        for (int i = 0; i < latched_.length; i++) {
+            latched_[i] = buffer.getInt() & 0xFF;
+        }
+        long saved_seconds = buffer.getLong();
+
+        buffer.order(order);
+
+        long now = clock_millis_.getAsLong();
+        long days = ((long) (days_high & 0x01) << 8) | days_low;
+        long elapsed = (((days * 24 + hours) * 60 + minutes) * 60 + seconds) * 1000;
+
+        halted_ = (days_high & 0x40) != 0;
+        carry_ = (days_high & 0x80) != 0;
+
+        if (!halted_) {
+            elapsed += Math.max(0, now - saved_seconds * 1000);
+        }
+
+        setElapsedMillis(now, elapsed);
+    }
+
+    @Override
+    public String toString() {
+        long seconds = getElapsedSeconds();
+        return String.format(
+                "rtc{days=%d, time=%02d:%02d:%02d, halted=%s, carry=%s}",
+                seconds / 86400,
+                (seconds / 3600) % 24,
+                (seconds / 60) % 60,
+                seconds % 60,
+                halted_,
+                carry_
+        );
+    }
+
 }
@@ -0,0 +1,155 @@
+package cartridge.components;
+
+import cartridge.constants.CartridgeConstants;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+// 1 bit per physical ROM byte read through the MBC, 8 MiB of ROM = 1 MiB of bits.
+// Marked by the emulation thread only, merge() of finished sessions is synchronized on the target.
+public class RomCoverage {
+
+    private static final int FILE_MAGIC = 0x47424356;  // "GBCV"
+    private static final int FILE_VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 12;     // magic, version, ROM size
+
+    private final int rom_size_;
+    private final long[] bits_;
+
+    public RomCoverage(int rom_size) {
+        if (rom_size <= 0) { throw new IllegalArgumentException("rom_size must be positive"); }
+
+        this.rom_size_ = rom_size;
+        this.bits_ = new long[(rom_size + 63) >>> 6];
+    }
+
+    // One or and one store, no branch
+    public void mark(int physical_address) {
+        bits_[physical_address >>> 6] |= 1L << physical_address;
+    }
+
+    // Block reads, whole words at a time
+    public void mark(int physical_address, int length) {
+        if (length <= 0) {
+            return;
+        }
+
+        int end = physical_address + length;                // exclusive
+        int first_word = physical_address >>> 6;
+        int last_word = (end - 1) >>> 6;
+        long first_mask = -1L << physical_address;
+        long last_mask = -1L >>> -end;
+
+        if (first_word == last_word) {
+            bits_[first_word] |= first_mask & last_mask;
+            return;
+        }
+
+        bits_[first_word] |= first_mask;
+        for (int word = first_word + 1; word < last_word; word++) {
+            bits_[word] = -1L;
+        }
+        bits_[last_word] |= last_mask;
+    }
+
+    public boolean isCovered(int physical_address) {
+        if (physical_address < 0 || physical_address >= rom_size_) {
+            return false;
+        }
+        return (bits_[physical_address >>> 6] & (1L << physical_address)) != 0;
+    }
+
+    public long getCoveredBytes() {
+        long count = 0;
+        for (long word : bits_) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public int getCoveredBytes(int bank) {
+        int first_word = bank * (CartridgeConstants.ROM_BANK_SIZE >>> 6);
+        int last_word = Math.min(bits_.length, first_word + (CartridgeConstants.ROM_BANK_SIZE >>> 6));
+
+        int count = 0;
+        for (int word = first_word; word < last_word; word++) {
+            count += Long.bitCount(bits_[word]);
+        }
+        return count;
+    }
+
+    // Union, other sessions of the same ROM
+    public synchronized void merge(RomCoverage other) {
+        if (other == null) { throw new IllegalArgumentException("Coverage null"); }
+        if (other.rom_size_ != rom_size_) { throw new IllegalArgumentException("Coverage of another ROM size: " + other.rom_size_ + " != " + rom_size_); }
+
+        for (int word = 0; word < bits_.length; word++) {
+            bits_[word] |= other.bits_[word];
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(bits_, 0L);
+    }
+
+    // Written next to the target and moved over it, same as the library index
+    public synchronized void save(Path file) throws IOException {
+        if (file == null) { throw new IllegalArgumentException("file null"); }
+
+        ByteBuffer buffer = ByteBuffer.allocate(FILE_HEADER_SIZE + bits_.length * 8);
+        buffer.putInt(FILE_MAGIC);
+        buffer.putInt(FILE_VERSION);
+        buffer.putInt(rom_size_);
+        buffer.asLongBuffer().put(bits_);
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+        try {
+            Files.write(temp, buffer.array());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static RomCoverage load(Path file) throws IOException {
+        if (file == null) { throw new IllegalArgumentException("file null"); }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+
+        if (buffer.remaining() < FILE_HEADER_SIZE || buffer.getInt() != FILE_MAGIC) { throw new IOException("Not a coverage file"); }
+
+        int version = buffer.getInt();
+        if (version != FILE_VERSION) { throw new IOException("Unsupported coverage version: " + version); }
+
+        int rom_size = buffer.getInt();
+        if (rom_size <= 0) { throw new IOException("Coverage ROM size invalid"); }
+
+        RomCoverage coverage = new RomCoverage(rom_size);
+        if (buffer.remaining() != coverage.bits_.length * 8) { throw new IOException("Coverage file truncated"); }
+
+        buffer.asLongBuffer().get(coverage.bits_);
+        return coverage;
+    }
+
+    public int getRomSize() {
+        return rom_size_;
+    }
+
+    @Override
+    public String toString() {
+        long covered = getCoveredBytes();
+        return String.format(
+                "rom_coverage{rom=%d bytes, covered=%d bytes (%.1f%%)}",
+                rom_size_,
+                covered,
+                covered * 100.0 / rom_size_
+        );
+    }
+
+}
@@ -56,4 +56,9 @@ public class CartridgeConstants {
 
     public static final int MIN_ROM_SIZE = 0x8000;  // 32KB
 
+    // Save state
+    public static final int SAVE_STATE_MAGIC = 0x47425354;  // "GBST"
+    public static final int SAVE_STATE_VERSION = 1;
+    public static final int SAVE_STATE_HEADER_SIZE = 16;
+
 }
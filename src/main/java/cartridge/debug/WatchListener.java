@@ -0,0 +1,7 @@
+package cartridge.debug;
+
+@FunctionalInterface
+public interface WatchListener {
+    // bank = ROM / RAM bank mapped at address when it was accessed, value = byte read or written
+    void onAccess(int address, int bank, int value, boolean write);
+}
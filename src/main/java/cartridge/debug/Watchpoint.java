@@ -0,0 +1,31 @@
+package cartridge.debug;
+
+// Inclusive CPU address range, bank = -1 matches every bank
+public record Watchpoint(int start, int end, int bank, boolean on_read, boolean on_write, WatchListener listener) {
+
+    public static final int ANY_BANK = -1;
+
+    public Watchpoint {
+        if (start < 0 || end > 0xFFFF || start > end) { throw new IllegalArgumentException("Invalid range"); }
+        if (!on_read && !on_write) { throw new IllegalArgumentException("Watchpoint needs read or write"); }
+        if (listener == null) { throw new IllegalArgumentException("Listener null"); }
+    }
+
+    public boolean matches(int address, int access_bank, boolean write) {
+        return address >= start && address <= end
+                && (write ? on_write : on_read)
+                && (bank == ANY_BANK || bank == access_bank);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "watchpoint{range=0x%04X-0x%04X, bank=%s, read=%s, write=%s}",
+                start,
+                end,
+                bank == ANY_BANK ? "any" : Integer.toString(bank),
+                on_read,
+                on_write
+        );
+    }
+}
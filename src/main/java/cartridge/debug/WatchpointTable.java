@@ -0,0 +1,116 @@
+package cartridge.debug;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Watchpoints bucketed per 256 byte page, accessors test one bit before anything else
+public class WatchpointTable {
+
+    public static final int PAGE_SHIFT = 8;
+    public static final int PAGE_COUNT = 0x10000 >>> PAGE_SHIFT;
+
+    private static final Watchpoint[] NONE = new Watchpoint[0];
+
+    // 1 bit per page, word = address >>> 14, bit = address >>> 8
+    private final long[] read_pages_;
+    private final long[] write_pages_;
+    private final Watchpoint[][] page_watchpoints_;
+    private final List<Watchpoint> watchpoints_;
+
+    public WatchpointTable() {
+        this.read_pages_ = new long[PAGE_COUNT >>> 6];
+        this.write_pages_ = new long[PAGE_COUNT >>> 6];
+        this.page_watchpoints_ = new Watchpoint[PAGE_COUNT][];
+        this.watchpoints_ = new ArrayList<>();
+
+        Arrays.fill(page_watchpoints_, NONE);
+    }
+
+    public boolean isReadWatched(int address) {
+        return (read_pages_[(address >>> 14) & 0x03] & (1L << (address >>> PAGE_SHIFT))) != 0;
+    }
+
+    public boolean isWriteWatched(int address) {
+        return (write_pages_[(address >>> 14) & 0x03] & (1L << (address >>> PAGE_SHIFT))) != 0;
+    }
+
+    // 64 pages per word, bit n = page (word << 6) + n
+    public long getReadWatchedPages(int word) {
+        return read_pages_[word];
+    }
+
+    public void add(Watchpoint watchpoint) {
+        if (watchpoint == null) { throw new IllegalArgumentException("Watchpoint null"); }
+
+        watchpoints_.add(watchpoint);
+        rebuild();
+    }
+
+    public boolean remove(Watchpoint watchpoint) {
+        boolean removed = watchpoints_.remove(watchpoint);
+        if (removed) {
+            rebuild();
+        }
+        return removed;
+    }
+
+    public void clear() {
+        watchpoints_.clear();
+        rebuild();
+    }
+
+    public boolean isEmpty() {
+        return watchpoints_.isEmpty();
+    }
+
+    public List<Watchpoint> getWatchpoints() {
+        return List.copyOf(watchpoints_);
+    }
+
+    // Only called after the page bit matched
+    public void notify(int address, int bank, int value, boolean write) {
+        for (Watchpoint watchpoint : page_watchpoints_[(address >>> PAGE_SHIFT) & 0xFF]) {
+            if (watchpoint.matches(address, bank, write)) {
+                watchpoint.listener().onAccess(address, bank, value, write);
+            }
+        }
+    }
+
+    private void rebuild() {
+        Arrays.fill(read_pages_, 0L);
+        Arrays.fill(write_pages_, 0L);
+
+        List<List<Watchpoint>> pages = new ArrayList<>(PAGE_COUNT);
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            pages.add(null);
+        }
+
+        for (Watchpoint watchpoint : watchpoints_) {
+            for (int page = watchpoint.start() >>> PAGE_SHIFT; page <= watchpoint.end() >>> PAGE_SHIFT; page++) {
+                if (watchpoint.on_read()) {
+                    read_pages_[page >>> 6] |= 1L << page;
+                }
+                if (watchpoint.on_write()) {
+                    write_pages_[page >>> 6] |= 1L << page;
+                }
+
+                if (pages.get(page) == null) {
+                    pages.set(page, new ArrayList<>());
+                }
+                pages.get(page).add(watchpoint);
+            }
+        }
+
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            List<Watchpoint> list = pages.get(page);
+            page_watchpoints_[page] = list != null ? list.toArray(NONE) : NONE;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("watchpoint_table{watchpoints=%d}", watchpoints_.size());
+    }
+
+}
@@ -0,0 +1,23 @@
+package cartridge.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("cartridge.BankingMode")
+@Label("Banking Mode")
+@Category({"Cartridge", "Banking"})
+@Description("MBC1 banking mode select (0x6000-0x7FFF) changed")
+@StackTrace(false)
+public class BankingModeEvent extends jdk.jfr.Event {
+
+    @Label("MBC")
+    public String mbc;
+
+    @Label("RAM Banking")
+    @Description("true = RAM banking mode, false = ROM banking mode")
+    public boolean ram_banking;
+
+}
@@ -0,0 +1,86 @@
+package cartridge.events;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+// JFR gate, call sites check isRecording() (one volatile read) before building an event.
+// Flipped by a recorder listener, the listener does not start JFR by itself.
+public class CartridgeEvents {
+
+    private static volatile boolean recording_ = false;
+
+    static {
+        if (FlightRecorder.isAvailable()) {
+            FlightRecorder.addListener(new FlightRecorderListener() {
+                @Override
+                public void recordingStateChanged(Recording recording) {
+                    recording_ = isAnyRecordingRunning();
+                }
+            });
+
+            // recording started before this class was loaded (-XX:StartFlightRecording)
+            if (FlightRecorder.isInitialized()) {
+                recording_ = isAnyRecordingRunning();
+            }
+        }
+    }
+
+    public static boolean isRecording() {
+        return recording_;
+    }
+
+    public static void romBankSwitch(String mbc, int region, int old_bank, int new_bank) {
+        RomBankSwitchEvent event = new RomBankSwitchEvent();
+        if (event.shouldCommit()) {
+            event.mbc = mbc;
+            event.region = region;
+            event.old_bank = old_bank;
+            event.new_bank = new_bank;
+            event.commit();
+        }
+    }
+
+    public static void ramEnable(String source, boolean enabled) {
+        RamEnableEvent event = new RamEnableEvent();
+        if (event.shouldCommit()) {
+            event.source = source;
+            event.enabled = enabled;
+            event.commit();
+        }
+    }
+
+    public static void bankingMode(String mbc, boolean ram_banking) {
+        BankingModeEvent event = new BankingModeEvent();
+        if (event.shouldCommit()) {
+            event.mbc = mbc;
+            event.ram_banking = ram_banking;
+            event.commit();
+        }
+    }
+
+    public static void ramBankSelect(String source, int old_bank, int new_bank) {
+        RamBankSelectEvent event = new RamBankSelectEvent();
+        if (event.shouldCommit()) {
+            event.source = source;
+            event.old_bank = old_bank;
+            event.new_bank = new_bank;
+            event.commit();
+        }
+    }
+
+    private static boolean isAnyRecordingRunning() {
+        for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings()) {
+            if (recording.getState() == RecordingState.RUNNING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CartridgeEvents() {
+        throw new AssertionError("No instantiation for Utility classes");
+    }
+
+}
@@ -0,0 +1,25 @@
+package cartridge.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("cartridge.RamBankSelect")
+@Label("RAM Bank Select")
+@Category({"Cartridge", "RAM"})
+@Description("External RAM bank changed")
+@StackTrace(false)
+public class RamBankSelectEvent extends jdk.jfr.Event {
+
+    @Label("Source")
+    public String source;
+
+    @Label("Old Bank")
+    public int old_bank;
+
+    @Label("New Bank")
+    public int new_bank;
+
+}
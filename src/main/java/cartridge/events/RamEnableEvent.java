@@ -0,0 +1,23 @@
+package cartridge.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("cartridge.RamEnable")
+@Label("RAM Enable")
+@Category({"Cartridge", "RAM"})
+@Description("External RAM enable register toggled")
+@StackTrace(false)
+public class RamEnableEvent extends jdk.jfr.Event {
+
+    @Label("Source")
+    @Description("MBC or RAM component that changed state")
+    public String source;
+
+    @Label("Enabled")
+    public boolean enabled;
+
+}
@@ -0,0 +1,29 @@
+package cartridge.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("cartridge.RomBankSwitch")
+@Label("ROM Bank Switch")
+@Category({"Cartridge", "Banking"})
+@Description("Effective ROM bank mapped at 0x0000 or 0x4000 changed")
+@StackTrace(false)
+public class RomBankSwitchEvent extends jdk.jfr.Event {
+
+    @Label("MBC")
+    public String mbc;
+
+    @Label("Region")
+    @Description("0x0000 = bank 0 area, 0x4000 = switchable area")
+    public int region;
+
+    @Label("Old Bank")
+    public int old_bank;
+
+    @Label("New Bank")
+    public int new_bank;
+
+}
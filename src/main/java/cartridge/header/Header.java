@@ -2,6 +2,8 @@ package cartridge.header;
 
 import cartridge.header.enums.*;
 import cartridge.constants.CartridgeConstants;
+import cartridge.interfaces.ReadOnlyMemory;
+import cartridge.util.RomIntegrity;
 
 import java.util.Arrays;
 
@@ -23,6 +25,13 @@ public record Header(
         int global_checksum            // 0x014E-0x014F: Global checksum (big-endian)
 ) {
 
+    // Only copies the header bytes, works for mapped images without touching the rest
+    public static Header parse(ReadOnlyMemory rom) {
+        if (rom == null || rom.getSize() < CartridgeConstants.HEADER_END + 1) { throw new IllegalArgumentException("ROM too small to contain header"); }
+
+        return parse(rom.readBytes(0, CartridgeConstants.HEADER_END + 1));
+    }
+
     public static Header parse(byte[] rom_data) {
         if (rom_data == null || rom_data.length < CartridgeConstants.HEADER_END + 1) { throw new IllegalArgumentException("ROM too small to contain header"); }
         
@@ -81,6 +90,14 @@ public record Header(
         return calculated == header_checksum;
     }
 
+    public boolean isHeaderChecksumValid(ReadOnlyMemory rom) {
+        int checksum = 0;
+        for (int addr = CartridgeConstants.TITLE_START; addr <= CartridgeConstants.VERSION; addr++) {
+            checksum = (checksum - rom.read(addr) - 1) & 0xFF;
+        }
+        return checksum == header_checksum;
+    }
+
     private int calculateHeaderChecksum(byte[] rom_data) {
         int checksum = 0;
         for (int addr = CartridgeConstants.TITLE_START; addr <= CartridgeConstants.VERSION; addr++) {
@@ -89,6 +106,15 @@ public record Header(
         return checksum;
     }
 
+    // Needs the whole image, hardware never checks it
+    public boolean isGlobalChecksumValid(byte[] rom_data) {
+        return RomIntegrity.computeGlobalChecksum(rom_data) == global_checksum;
+    }
+
+    public boolean isGlobalChecksumValid(ReadOnlyMemory rom) {
+        return RomIntegrity.computeGlobalChecksum(rom) == global_checksum;
+    }
+
     public boolean isNintendoLogoValid() {
         return Arrays.equals(nintendo_logo, CartridgeConstants.NINTENDO_LOGO);
     }
@@ -97,6 +123,10 @@ public record Header(
         return isHeaderChecksumValid(rom_data) && isNintendoLogoValid();
     }
 
+    public boolean isValid(ReadOnlyMemory rom) {
+        return isHeaderChecksumValid(rom) && isNintendoLogoValid();
+    }
+
 
     public boolean hasBattery() { return cartridge_type.has_battery; }
 
@@ -23,11 +23,13 @@ public enum RomSize {
     public final int value;
     public final int size_in_bytes;
     public final int bank_count;
+    public final int bank_mask;     // next power of 2 minus 1, unofficial sizes need a modulo fallback
 
     RomSize(int value, int sizeInBytes, int bank_count) {
         this.value = value;
         this.size_in_bytes = sizeInBytes;
         this.bank_count = bank_count;
+        this.bank_mask = bankMaskFor(bank_count);
     }
 
     public static RomSize fromByte(int b) {
@@ -39,4 +41,12 @@ public enum RomSize {
         throw new IllegalArgumentException("Unknown ROM size");
     }
 
+    // From the image bank count, ROM images don't always match their header
+    public static int bankMaskFor(int bank_count) {
+        if (bank_count <= 1) {
+            return 0;
+        }
+        return (Integer.highestOneBit(bank_count - 1) << 1) - 1;
+    }
+
 }
@@ -1,10 +1,22 @@
 package cartridge.interfaces;
 
+import cartridge.components.BankStatistics;
+
+import java.nio.ByteBuffer;
+
 public interface ExternalMemory {
     int read(int address);
 
     void write(int address, int value);
 
+    // Current bank, address is masked like read()
+    void readBlock(int address, byte[] dst, int offset, int length);
+
+    // Raw access by physical offset, ignores enable and bank (rewind, debuggers)
+    int readPhysical(int physical_address);
+
+    void writePhysical(int physical_address, int value);
+
     void selectBank(int bank);
 
     void setEnabled(boolean enabled);
@@ -17,6 +29,9 @@ public interface ExternalMemory {
 
     int getSize();
 
+    boolean hasArray();
+
+    // Backing heap array, null when hasArray() is false
     byte[] getData();
 
     void loadData(byte[] data);
@@ -24,4 +39,14 @@ public interface ExternalMemory {
     void reset();
 
     void clear();
+
+    // Save state, fixed size, read/written at the buffer position without allocating
+    int getStateSize();
+
+    void saveState(ByteBuffer buffer);
+
+    void loadState(ByteBuffer buffer);
+
+    // Per-bank RAM counters, null = off
+    void setStatistics(BankStatistics statistics);
 }
@@ -1,7 +1,11 @@
 package cartridge.interfaces;
 
+import cartridge.components.BankStatistics;
+import cartridge.components.RomCoverage;
 import shared.Component;
 
+import java.nio.ByteBuffer;
+
 public interface MemoryBankController extends Component{
 
     int readRom(int address);
@@ -12,10 +16,37 @@ public interface MemoryBankController extends Component{
 
     void writeRam(int address, int value);
 
+    // Bank mapping resolved once per contiguous span
+    void readRomBlock(int address, byte[] dst, int offset, int length);
+
+    void readRamBlock(int address, byte[] dst, int offset, int length);
+
     int getCurrentRomBank();
 
     int getCurrentRamBank();
 
+    // Physical ROM offsets currently mapped at 0x0000 and 0x4000
+    // only recomputed when a control register is written
+    int getRomBank0Base();
+
+    int getRomBankNBase();
+
+    // Physical RAM offset mapped at 0xA000, -1 if RAM is absent, disabled or not plain bytes
+    int getRamBankBase();
+
     boolean isRamEnabled();
 
+    // Save state, fixed size, read/written at the buffer position without allocating
+    int getStateSize();
+
+    void saveState(ByteBuffer buffer);
+
+    void loadState(ByteBuffer buffer);
+
+    // Access counters, null = off, the hot path then only pays a null check
+    void setStatistics(BankStatistics statistics);
+
+    // Marks every physical ROM byte read, null = off
+    void setCoverage(RomCoverage coverage);
+
 }
@@ -0,0 +1,15 @@
+package cartridge.interfaces;
+
+// RAM that records the generation each 256 byte page was last written in (rewind, fork)
+public interface PageTracked {
+
+    // Closes the current generation and returns it, later writes are newer than the returned value
+    long checkpoint();
+
+    boolean isPageDirtySince(int page, long generation);
+
+    // Fills dst (1 bit per page) with the pages written after generation, returns how many
+    int getDirtyPagesSince(long generation, long[] dst);
+
+    int getPageCount();
+}
@@ -11,10 +11,19 @@ public interface ReadOnlyMemory {
     int getSize();
     int getBankCount();
     int getBankSize();
+    boolean hasArray();
+
+    // Whole image as one heap array, null when hasArray() is false
     byte[] getData();
+
+    // Heap array holding the bank and the bank start in it, null / -1 if the bank is not in a heap array.
+    // Resolved on bank switches so MBC and bus reads stay one array load for split images (PatchedROM)
+    byte[] getBankArray(int bank);
+    int getBankArrayOffset(int bank);
     byte[] copyRegion(int start, int length);
     int getBankForAddress(int physical_address);
     int getOffsetInBank(int physical_address);
     byte[] readBytes(int start_address, int length);
+    void readBlock(int physical_address, byte[] dst, int offset, int length);
     int readWord(int address);
 }
@@ -1,15 +1,24 @@
 package cartridge.mbc;
 
+import cartridge.components.BankStatistics;
+import cartridge.components.RomCoverage;
+import cartridge.constants.CartridgeConstants;
 import cartridge.interfaces.ExternalMemory;
 import cartridge.interfaces.MemoryBankController;
 import cartridge.interfaces.ReadOnlyMemory;
 import cartridge.rom.ROM;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 public class MBC0 implements MemoryBankController {
 
     private final ReadOnlyMemory rom_;
     private final ExternalMemory ram_;
 
+    private BankStatistics statistics_; // null = off
+    private RomCoverage coverage_;      // null = off
+
     public MBC0(ReadOnlyMemory rom, ExternalMemory ram) {
         this.rom_ = rom;
         this.ram_ = ram;
@@ -27,6 +36,13 @@ public class MBC0 implements MemoryBankController {
 
     @Override
     public int readRom(int address) {
+        if (statistics_ != null) {
+            statistics_.romRead((address >>> 14) & 0x01);
+        }
+        if (coverage_ != null) {
+            coverage_.mark(address);
+        }
+
         // Direct mapping, no banking, just pass through
         return rom_.read(address);
     }
@@ -57,6 +73,31 @@ public class MBC0 implements MemoryBankController {
         ram_.write(address, value);
     }
 
+    @Override
+    public void readRomBlock(int address, byte[] dst, int offset, int length) {
+        if (statistics_ != null) {
+            int bank0_length = Math.max(0, Math.min(length, 0x4000 - address));
+            statistics_.romRead(0, bank0_length);
+            statistics_.romRead(1, length - bank0_length);
+        }
+        if (coverage_ != null) {
+            coverage_.mark(address, length);
+        }
+
+        // Direct mapping, one copy
+        rom_.readBlock(address, dst, offset, length);
+    }
+
+    @Override
+    public void readRamBlock(int address, byte[] dst, int offset, int length) {
+        if (ram_ == null) {
+            Arrays.fill(dst, offset, offset + length, (byte) 0xFF); // No RAM present
+            return;
+        }
+
+        ram_.readBlock(address, dst, offset, length);
+    }
+
     @Override
     public void reset() {
         // no state to reset
@@ -72,6 +113,11 @@ public class MBC0 implements MemoryBankController {
         // No real time clock
     }
 
+    @Override
+    public boolean needsTick() {
+        return false;
+    }
+
     @Override
     public int getCurrentRomBank() {
         // no banking
@@ -84,12 +130,52 @@ public class MBC0 implements MemoryBankController {
         return 0;
     }
 
+    @Override
+    public int getRomBank0Base() {
+        return 0;
+    }
+
+    @Override
+    public int getRomBankNBase() {
+        return CartridgeConstants.ROM_BANK_SIZE;
+    }
+
+    @Override
+    public int getRamBankBase() {
+        return ram_ != null && ram_.isEnabled() && ram_.hasArray() ? 0 : -1;
+    }
+
     @Override
     public boolean isRamEnabled() {
         // always enabled if present
         return ram_ != null;
     }
 
+    @Override
+    public int getStateSize() {
+        return 0; // no registers
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        // no registers
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        // no registers
+    }
+
+    @Override
+    public void setStatistics(BankStatistics statistics) {
+        this.statistics_ = statistics;
+    }
+
+    @Override
+    public void setCoverage(RomCoverage coverage) {
+        this.coverage_ = coverage;
+    }
+
     @Override
     public String getComponentName() {
         return "MBC0";
@@ -1,45 +1,53 @@
 package cartridge.mbc;
 
+import cartridge.components.BankStatistics;
+import cartridge.components.RomCoverage;
+import cartridge.constants.CartridgeConstants;
+import cartridge.events.CartridgeEvents;
 import cartridge.interfaces.ExternalMemory;
 import cartridge.interfaces.MemoryBankController;
 import cartridge.interfaces.ReadOnlyMemory;
 import cartridge.rom.ROM;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 public class MBC1 implements MemoryBankController {
 
     private final ReadOnlyMemory rom_;
     private final ExternalMemory ram_;
 
+    private final RomBankWindow window_;
+
     // Banking state
     private int rom_bank_;          // Lower 5 bits (0x01-0x1F)
     private int ram_bank_;          // Upper 2 bits (0x00-0x03)
     private boolean ram_enabled_;   // RAM enable flag
     private boolean banking_mode_;  // ROM mode (0) / RAM mode (1)
 
+    private BankStatistics statistics_; // null = off
+
     public MBC1(ReadOnlyMemory rom, ExternalMemory ram) {
         this.rom_ = rom;
         this.ram_ = ram;
 
+        this.window_ = new RomBankWindow(rom);
+
         reset();
     }
 
     @Override
     public int readRom(int address) {
-        if (address < 0x4000) {
-            // Bank 0, in RAM banking mode upper bits affect bank 0
-            int bank = banking_mode_ ? (ram_bank_ << 5) : 0;
-            return rom_.readBank(bank, address);
-        } else {
-            // Bank N
-            int bank = calculateRomBank();
-            int offset = address - 0x4000;
-            return rom_.readBank(bank, offset);
-        }
+        // Banks are resolved in writeRom
+        return window_.read(address);
     }
 
     @Override
     public int readRam(int address) {
         if (!ram_enabled_ || ram_ == null) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead();
+            }
             return 0xFF;
         }
 
@@ -51,6 +59,12 @@ public class MBC1 implements MemoryBankController {
 
     @Override
     public void writeRom(int address, int value) {
+        int previous_bank0 = window_.getBank0();
+        int previous_bankn = window_.getBankN();
+        int previous_ram_bank = getCurrentRamBank();
+        boolean previous_ram_enabled = ram_enabled_;
+        boolean previous_banking_mode = banking_mode_;
+
         if (address < 0x2000) {
             // 0x0A enables RAM everything else disables it
             ram_enabled_ = (value & 0x0F) == 0x0A;
@@ -76,11 +90,41 @@ public class MBC1 implements MemoryBankController {
             // 0 = ROM | 1 = RAM
             banking_mode_ = (value & 0x01) == 1;
         }
+
+        updateRomBanks();
+
+        if (statistics_ != null) {
+            boolean switched = window_.getBank0() != previous_bank0 || window_.getBankN() != previous_bankn || getCurrentRamBank() != previous_ram_bank;
+            statistics_.registerWrite(address, switched);
+        }
+
+        if (CartridgeEvents.isRecording()) {
+            emitEvents(previous_bank0, previous_bankn, previous_ram_enabled, previous_banking_mode);
+        }
+    }
+
+    // JFR timeline, only reached while a recording runs
+    private void emitEvents(int previous_bank0, int previous_bankn, boolean previous_ram_enabled, boolean previous_banking_mode) {
+        if (window_.getBank0() != previous_bank0) {
+            CartridgeEvents.romBankSwitch("MBC1", CartridgeConstants.ROM_BANK_0_START, previous_bank0, window_.getBank0());
+        }
+        if (window_.getBankN() != previous_bankn) {
+            CartridgeEvents.romBankSwitch("MBC1", CartridgeConstants.ROM_BANK_N_START, previous_bankn, window_.getBankN());
+        }
+        if (ram_enabled_ != previous_ram_enabled) {
+            CartridgeEvents.ramEnable("MBC1", ram_enabled_);
+        }
+        if (banking_mode_ != previous_banking_mode) {
+            CartridgeEvents.bankingMode("MBC1", banking_mode_);
+        }
     }
 
     @Override
     public void writeRam(int address, int value) {
         if (!ram_enabled_ || ram_ == null) {
+            if (statistics_ != null) {
+                statistics_.disabledRamWrite();
+            }
             return;
         }
 
@@ -90,6 +134,27 @@ public class MBC1 implements MemoryBankController {
         ram_.write(address, value);
     }
 
+    @Override
+    public void readRomBlock(int address, byte[] dst, int offset, int length) {
+        window_.readBlock(address, dst, offset, length);
+    }
+
+    @Override
+    public void readRamBlock(int address, byte[] dst, int offset, int length) {
+        if (!ram_enabled_ || ram_ == null) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead(length);
+            }
+            Arrays.fill(dst, offset, offset + length, (byte) 0xFF);
+            return;
+        }
+
+        // RAM bank only used in RAM banking mode
+        int bank = banking_mode_ ? ram_bank_ : 0;
+        ram_.selectBank(bank);
+        ram_.readBlock(address, dst, offset, length);
+    }
+
     @Override
     public void reset() {
         rom_bank_ = 1; // bank 0 not selectable
@@ -97,6 +162,8 @@ public class MBC1 implements MemoryBankController {
         ram_enabled_ = false;
         banking_mode_ = false; // ROM by default
 
+        updateRomBanks();
+
         if (ram_ != null) {
             ram_.reset();
         }
@@ -107,6 +174,17 @@ public class MBC1 implements MemoryBankController {
         // no time-based behavior
     }
 
+    @Override
+    public boolean needsTick() {
+        return false;
+    }
+
+    private void updateRomBanks() {
+        // Bank 0, in RAM banking mode upper bits affect bank 0
+        window_.setBank0(banking_mode_ ? (ram_bank_ << 5) : 0);
+        window_.setBankN(calculateRomBank());
+    }
+
     private int calculateRomBank() {
         // lower 5 bits from rom_bank_ with upper 2 bits ram_bank_
         int bank = rom_bank_ | (ram_bank_ << 5);
@@ -118,13 +196,12 @@ public class MBC1 implements MemoryBankController {
             bank++;
         }
 
-        int max_bank = rom_.getBankCount();
-        return bank % max_bank;
+        return bank;
     }
 
     @Override
     public int getCurrentRomBank() {
-        return calculateRomBank();
+        return window_.getBankN();
     }
 
     @Override
@@ -132,11 +209,68 @@ public class MBC1 implements MemoryBankController {
         return banking_mode_ ? ram_bank_ : 0;
     }
 
+    @Override
+    public int getRomBank0Base() {
+        return window_.getBank0Base();
+    }
+
+    @Override
+    public int getRomBankNBase() {
+        return window_.getBankNBase();
+    }
+
+    @Override
+    public int getRamBankBase() {
+        if (!ram_enabled_ || ram_ == null || !ram_.hasArray() || ram_.getBankCount() == 0) {
+            return -1;
+        }
+        return (getCurrentRamBank() % ram_.getBankCount()) * CartridgeConstants.RAM_BANK_SIZE;
+    }
+
     @Override
     public boolean isRamEnabled() {
         return ram_enabled_;
     }
 
+    @Override
+    public int getStateSize() {
+        return 4;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.put((byte) rom_bank_);
+        buffer.put((byte) ram_bank_);
+        buffer.put((byte) (ram_enabled_ ? 1 : 0));
+        buffer.put((byte) (banking_mode_ ? 1 : 0));
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        rom_bank_ = buffer.get() & 0x1F;
+        ram_bank_ = buffer.get() & 0x03;
+        ram_enabled_ = buffer.get() != 0;
+        banking_mode_ = buffer.get() != 0;
+
+        // Bank 0 not selectable
+        if (rom_bank_ == 0) {
+            rom_bank_ = 1;
+        }
+
+        updateRomBanks();
+    }
+
+    @Override
+    public void setStatistics(BankStatistics statistics) {
+        this.statistics_ = statistics;
+        window_.setStatistics(statistics);
+    }
+
+    @Override
+    public void setCoverage(RomCoverage coverage) {
+        window_.setCoverage(coverage);
+    }
+
     @Override
     public String getComponentName() {
         return "MBC1";
@@ -152,7 +286,7 @@ public class MBC1 implements MemoryBankController {
                 "mbc1{rom=%s, ram=%s, rom_bank=0x%02X, ram_bank=%d, mode=%s, ram_enabled=%s}",
                 rom_.toString(),
                 ram_ != null ? ram_.toString() : "none",
-                calculateRomBank(),
+                window_.getBankN(),
                 getCurrentRamBank(),
                 getBankingMode(),
                 ram_enabled_
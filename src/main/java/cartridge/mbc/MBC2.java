@@ -0,0 +1,247 @@
+package cartridge.mbc;
+
+import cartridge.components.BankStatistics;
+import cartridge.components.RomCoverage;
+import cartridge.constants.CartridgeConstants;
+import cartridge.events.CartridgeEvents;
+import cartridge.interfaces.ExternalMemory;
+import cartridge.interfaces.MemoryBankController;
+import cartridge.interfaces.ReadOnlyMemory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class MBC2 implements MemoryBankController {
+
+    // 0x0000-0x3FFF, A14 = 0 selects the register range, A8 selects the register
+    private static final int REGISTER_DECODE_MASK = 0x4100;
+    private static final int RAM_ENABLE_REGISTER = 0x0000;
+    private static final int ROM_BANK_REGISTER = 0x0100;
+
+    private final ReadOnlyMemory rom_;
+    private final ExternalMemory ram_;  // MBC2RAM, always present
+
+    private final RomBankWindow window_;
+
+    // Banking state
+    private int rom_bank_;          // 4 bits (0x01-0x0F)
+    private boolean ram_enabled_;   // RAM enable flag
+
+    private BankStatistics statistics_; // null = off
+
+    public MBC2(ReadOnlyMemory rom, ExternalMemory ram) {
+        this.rom_ = rom;
+        this.ram_ = ram;
+
+        this.window_ = new RomBankWindow(rom);
+
+        reset();
+    }
+
+    @Override
+    public int readRom(int address) {
+        // Bank 0 is fixed, bank N is resolved in writeRom
+        return window_.read(address);
+    }
+
+    @Override
+    public int readRam(int address) {
+        if (!ram_enabled_ || ram_ == null) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead();
+            }
+            return 0xFF;
+        }
+
+        // 512 entries mirrored across 0xA000-0xBFFF by the RAM
+        return ram_.read(address);
+    }
+
+    @Override
+    public void writeRom(int address, int value) {
+        int previous_bankn = window_.getBankN();
+        boolean previous_ram_enabled = ram_enabled_;
+
+        // no range checks, the register is picked by A14 and A8
+        switch (address & REGISTER_DECODE_MASK) {
+            case RAM_ENABLE_REGISTER -> {
+                // 0x0A enables RAM everything else disables it
+                ram_enabled_ = (value & 0x0F) == 0x0A;
+
+                if (ram_ != null) {
+                    ram_.setEnabled(ram_enabled_);
+                }
+            }
+            case ROM_BANK_REGISTER -> {
+                // ROM Bank Number = lower 4 bits, bank 0 not selectable
+                rom_bank_ = value & 0x0F;
+                if (rom_bank_ == 0) {
+                    rom_bank_ = 1;
+                }
+
+                updateRomBank();
+            }
+            default -> {
+                // 0x4000-0x7FFF, no registers
+            }
+        }
+
+        if (statistics_ != null) {
+            statistics_.registerWrite(address, window_.getBankN() != previous_bankn);
+        }
+
+        if (CartridgeEvents.isRecording()) {
+            emitEvents(previous_bankn, previous_ram_enabled);
+        }
+    }
+
+    // JFR timeline, only reached while a recording runs
+    private void emitEvents(int previous_bankn, boolean previous_ram_enabled) {
+        if (window_.getBankN() != previous_bankn) {
+            CartridgeEvents.romBankSwitch("MBC2", CartridgeConstants.ROM_BANK_N_START, previous_bankn, window_.getBankN());
+        }
+        if (ram_enabled_ != previous_ram_enabled) {
+            CartridgeEvents.ramEnable("MBC2", ram_enabled_);
+        }
+    }
+
+    @Override
+    public void writeRam(int address, int value) {
+        if (!ram_enabled_ || ram_ == null) {
+            if (statistics_ != null) {
+                statistics_.disabledRamWrite();
+            }
+            return;
+        }
+
+        // only the lower 4 bits are stored
+        ram_.write(address, value);
+    }
+
+    @Override
+    public void readRomBlock(int address, byte[] dst, int offset, int length) {
+        window_.readBlock(address, dst, offset, length);
+    }
+
+    @Override
+    public void readRamBlock(int address, byte[] dst, int offset, int length) {
+        if (!ram_enabled_ || ram_ == null) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead(length);
+            }
+            Arrays.fill(dst, offset, offset + length, (byte) 0xFF);
+            return;
+        }
+
+        ram_.readBlock(address, dst, offset, length);
+    }
+
+    @Override
+    public void reset() {
+        rom_bank_ = 1; // bank 0 not selectable
+        ram_enabled_ = false;
+
+        updateRomBank();
+
+        if (ram_ != null) {
+            ram_.reset();
+        }
+    }
+
+    @Override
+    public void tick(int cycles) {
+        // no time-based behavior
+    }
+
+    @Override
+    public boolean needsTick() {
+        return false;
+    }
+
+    private void updateRomBank() {
+        window_.setBankN(rom_bank_);
+    }
+
+    @Override
+    public int getCurrentRomBank() {
+        return window_.getBankN();
+    }
+
+    @Override
+    public int getCurrentRamBank() {
+        return 0;
+    }
+
+    @Override
+    public int getRomBank0Base() {
+        return 0;
+    }
+
+    @Override
+    public int getRomBankNBase() {
+        return window_.getBankNBase();
+    }
+
+    // packed nibbles, no flat array for the bus
+    @Override
+    public int getRamBankBase() {
+        return -1;
+    }
+
+    @Override
+    public boolean isRamEnabled() {
+        return ram_enabled_;
+    }
+
+    @Override
+    public int getStateSize() {
+        return 2;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.put((byte) rom_bank_);
+        buffer.put((byte) (ram_enabled_ ? 1 : 0));
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        rom_bank_ = buffer.get() & 0x0F;
+        ram_enabled_ = buffer.get() != 0;
+
+        // Bank 0 not selectable
+        if (rom_bank_ == 0) {
+            rom_bank_ = 1;
+        }
+
+        updateRomBank();
+    }
+
+    @Override
+    public void setStatistics(BankStatistics statistics) {
+        this.statistics_ = statistics;
+        window_.setStatistics(statistics);
+    }
+
+    @Override
+    public void setCoverage(RomCoverage coverage) {
+        window_.setCoverage(coverage);
+    }
+
+    @Override
+    public String getComponentName() {
+        return "MBC2";
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "mbc2{rom=%s, ram=%s, rom_bank=0x%02X, ram_enabled=%s}",
+                rom_.toString(),
+                ram_ != null ? ram_.toString() : "none",
+                window_.getBankN(),
+                ram_enabled_
+        );
+    }
+
+}
@@ -0,0 +1,292 @@
+package cartridge.mbc;
+
+import cartridge.components.BankStatistics;
+import cartridge.components.RomCoverage;
+import cartridge.components.RealTimeClock;
+import cartridge.constants.CartridgeConstants;
+import cartridge.interfaces.ExternalMemory;
+import cartridge.interfaces.MemoryBankController;
+import cartridge.interfaces.ReadOnlyMemory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class MBC3 implements MemoryBankController {
+
+    private final ReadOnlyMemory rom_;
+    private final ExternalMemory ram_;
+    private final RealTimeClock rtc_;   // null without timer
+
+    private final RomBankWindow window_;
+
+    // Banking state
+    private int rom_bank_;          // 7 bits (0x01-0x7F)
+    private int ram_select_;        // RAM bank (0x00-0x03) or RTC register (0x08-0x0C)
+    private boolean ram_enabled_;   // RAM and timer enable flag
+    private int latch_value_;       // last write to 0x6000-0x7FFF, 0x00 -> 0x01 latches
+
+    private BankStatistics statistics_; // null = off
+
+    public MBC3(ReadOnlyMemory rom, ExternalMemory ram, RealTimeClock rtc) {
+        this.rom_ = rom;
+        this.ram_ = ram;
+        this.rtc_ = rtc;
+
+        this.window_ = new RomBankWindow(rom);
+
+        reset();
+    }
+
+    @Override
+    public int readRom(int address) {
+        // Bank 0 is fixed, bank N is resolved in writeRom
+        return window_.read(address);
+    }
+
+    @Override
+    public int readRam(int address) {
+        if (!ram_enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead();
+            }
+            return 0xFF;
+        }
+
+        if (isRtcSelected()) {
+            // latched value, clock is only evaluated on latch
+            return rtc_ != null ? rtc_.read(ram_select_) : 0xFF;
+        }
+
+        if (ram_ == null) {
+            return 0xFF;
+        }
+
+        ram_.selectBank(ram_select_);
+        return ram_.read(address);
+    }
+
+    @Override
+    public void writeRom(int address, int value) {
+        int previous_bankn = window_.getBankN();
+        int previous_select = ram_select_;
+
+        if (address < 0x2000) {
+            // 0x0A enables RAM and timer, everything else disables them
+            ram_enabled_ = (value & 0x0F) == 0x0A;
+
+            if (ram_ != null) {
+                ram_.setEnabled(ram_enabled_);
+            }
+
+        } else if (address < 0x4000) {
+            // ROM Bank Number = 7 bits
+            rom_bank_ = value & 0x7F;
+
+            // Bank 0 not selectable
+            if (rom_bank_ == 0) {
+                rom_bank_ = 1;
+            }
+
+            updateRomBank();
+
+        } else if (address < 0x6000) {
+            // 0x00-0x03 RAM bank, 0x08-0x0C RTC register
+            ram_select_ = value & 0x0F;
+
+        } else {
+            // 0x00 then 0x01 latches the clock
+            if (latch_value_ == 0x00 && value == 0x01 && rtc_ != null) {
+                rtc_.latch();
+            }
+            latch_value_ = value;
+        }
+
+        if (statistics_ != null) {
+            statistics_.registerWrite(address, window_.getBankN() != previous_bankn || ram_select_ != previous_select);
+        }
+    }
+
+    @Override
+    public void writeRam(int address, int value) {
+        if (!ram_enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamWrite();
+            }
+            return;
+        }
+
+        if (isRtcSelected()) {
+            if (rtc_ != null) {
+                rtc_.write(ram_select_, value);
+            }
+            return;
+        }
+
+        if (ram_ == null) {
+            return;
+        }
+
+        ram_.selectBank(ram_select_);
+        ram_.write(address, value);
+    }
+
+    @Override
+    public void readRomBlock(int address, byte[] dst, int offset, int length) {
+        window_.readBlock(address, dst, offset, length);
+    }
+
+    @Override
+    public void readRamBlock(int address, byte[] dst, int offset, int length) {
+        if (!ram_enabled_ || (!isRtcSelected() && ram_ == null)) {
+            if (statistics_ != null && !ram_enabled_) {
+                statistics_.disabledRamRead(length);
+            }
+            Arrays.fill(dst, offset, offset + length, (byte) 0xFF);
+            return;
+        }
+
+        if (isRtcSelected()) {
+            // register repeats over the whole range
+            Arrays.fill(dst, offset, offset + length, (byte) readRam(address));
+            return;
+        }
+
+        ram_.selectBank(ram_select_);
+        ram_.readBlock(address, dst, offset, length);
+    }
+
+    @Override
+    public void reset() {
+        rom_bank_ = 1; // bank 0 not selectable
+        ram_select_ = 0;
+        ram_enabled_ = false;
+        latch_value_ = 0xFF;
+
+        updateRomBank();
+
+        if (ram_ != null) {
+            ram_.reset();
+        }
+
+        // RTC is battery backed and keeps running
+    }
+
+    @Override
+    public void tick(int cycles) {
+        // RTC is derived from wall-clock time on access, nothing to tick
+    }
+
+    @Override
+    public boolean needsTick() {
+        return false;
+    }
+
+    private boolean isRtcSelected() {
+        return ram_select_ >= RealTimeClock.SECONDS;
+    }
+
+    private void updateRomBank() {
+        window_.setBankN(rom_bank_);
+    }
+
+    @Override
+    public int getCurrentRomBank() {
+        return window_.getBankN();
+    }
+
+    @Override
+    public int getCurrentRamBank() {
+        return isRtcSelected() ? 0 : ram_select_;
+    }
+
+    @Override
+    public int getRomBank0Base() {
+        return 0;
+    }
+
+    @Override
+    public int getRomBankNBase() {
+        return window_.getBankNBase();
+    }
+
+    @Override
+    public int getRamBankBase() {
+        // RTC registers are not plain bytes
+        if (!ram_enabled_ || isRtcSelected() || ram_ == null || !ram_.hasArray() || ram_.getBankCount() == 0) {
+            return -1;
+        }
+        return (ram_select_ % ram_.getBankCount()) * CartridgeConstants.RAM_BANK_SIZE;
+    }
+
+    @Override
+    public boolean isRamEnabled() {
+        return ram_enabled_;
+    }
+
+    public boolean isRtcMapped() {
+        return ram_enabled_ && isRtcSelected();
+    }
+
+    public RealTimeClock getRtc() {
+        return rtc_;
+    }
+
+    // RTC is saved by the cartridge, it is shared with the battery
+    @Override
+    public int getStateSize() {
+        return 4;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.put((byte) rom_bank_);
+        buffer.put((byte) ram_select_);
+        buffer.put((byte) (ram_enabled_ ? 1 : 0));
+        buffer.put((byte) latch_value_);
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        rom_bank_ = buffer.get() & 0x7F;
+        ram_select_ = buffer.get() & 0x0F;
+        ram_enabled_ = buffer.get() != 0;
+        latch_value_ = buffer.get() & 0xFF;
+
+        // Bank 0 not selectable
+        if (rom_bank_ == 0) {
+            rom_bank_ = 1;
+        }
+
+        updateRomBank();
+    }
+
+    @Override
+    public void setStatistics(BankStatistics statistics) {
+        this.statistics_ = statistics;
+        window_.setStatistics(statistics);
+    }
+
+    @Override
+    public void setCoverage(RomCoverage coverage) {
+        window_.setCoverage(coverage);
+    }
+
+    @Override
+    public String getComponentName() {
+        return "MBC3";
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "mbc3{rom=%s, ram=%s, rtc=%s, rom_bank=0x%02X, ram_select=0x%02X, ram_enabled=%s}",
+                rom_.toString(),
+                ram_ != null ? ram_.toString() : "none",
+                rtc_ != null ? rtc_.toString() : "none",
+                window_.getBankN(),
+                ram_select_,
+                ram_enabled_
+        );
+    }
+
+}
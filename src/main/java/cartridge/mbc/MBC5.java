@@ -0,0 +1,278 @@
+package cartridge.mbc;
+
+import cartridge.components.BankStatistics;
+import cartridge.components.RomCoverage;
+import cartridge.constants.CartridgeConstants;
+import cartridge.events.CartridgeEvents;
+import cartridge.interfaces.ExternalMemory;
+import cartridge.interfaces.MemoryBankController;
+import cartridge.interfaces.ReadOnlyMemory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class MBC5 implements MemoryBankController {
+
+    private final ReadOnlyMemory rom_;
+    private final ExternalMemory ram_;
+    private final boolean rumble_;  // RAM bank bit 3 drives the motor
+
+    private final RomBankWindow window_;
+
+    // Banking state
+    private int rom_bank_;          // 9 bits (0x000-0x1FF), bank 0 selectable
+    private int ram_bank_;          // 4 bits (0x00-0x0F), 3 bits on rumble cartridges
+    private boolean ram_enabled_;   // RAM enable flag
+    private boolean motor_on_;      // rumble only
+
+    private BankStatistics statistics_; // null = off
+
+    public MBC5(ReadOnlyMemory rom, ExternalMemory ram, boolean rumble) {
+        this.rom_ = rom;
+        this.ram_ = ram;
+        this.rumble_ = rumble;
+
+        this.window_ = new RomBankWindow(rom);
+
+        reset();
+    }
+
+    @Override
+    public int readRom(int address) {
+        // Bank 0 is fixed, bank N is resolved in writeRom
+        return window_.read(address);
+    }
+
+    @Override
+    public int readRam(int address) {
+        if (!ram_enabled_ || ram_ == null) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead();
+            }
+            return 0xFF;
+        }
+
+        // bank already selected by the register write
+        return ram_.read(address);
+    }
+
+    @Override
+    public void writeRom(int address, int value) {
+        int previous_bankn = window_.getBankN();
+        int previous_ram_bank = getCurrentRamBank();
+        boolean previous_ram_enabled = ram_enabled_;
+
+        // A13-A14 pick the register, A12 splits the ROM bank
+        switch (address & 0x6000) {
+            case 0x0000 -> {
+                // 0x0A enables RAM everything else disables it
+                ram_enabled_ = (value & 0x0F) == 0x0A;
+
+                if (ram_ != null) {
+                    ram_.setEnabled(ram_enabled_);
+                }
+            }
+            case 0x2000 -> {
+                if ((address & 0x1000) == 0) {
+                    rom_bank_ = (rom_bank_ & 0x100) | (value & 0xFF);     // lower 8 bits
+                } else {
+                    rom_bank_ = (rom_bank_ & 0x0FF) | ((value & 0x01) << 8);  // bit 8
+                }
+
+                updateRomBank();
+            }
+            case 0x4000 -> {
+                if (rumble_) {
+                    motor_on_ = (value & 0x08) != 0;
+                    ram_bank_ = value & 0x07;
+                } else {
+                    ram_bank_ = value & 0x0F;
+                }
+
+                // resolved once here, RAM accesses use the selected bank as is
+                if (ram_ != null) {
+                    ram_.selectBank(ram_bank_);
+                }
+            }
+            default -> {
+                // 0x6000-0x7FFF, no registers
+            }
+        }
+
+        if (statistics_ != null) {
+            statistics_.registerWrite(address, window_.getBankN() != previous_bankn || getCurrentRamBank() != previous_ram_bank);
+        }
+
+        if (CartridgeEvents.isRecording()) {
+            emitEvents(previous_bankn, previous_ram_enabled);
+        }
+    }
+
+    // JFR timeline, only reached while a recording runs
+    private void emitEvents(int previous_bankn, boolean previous_ram_enabled) {
+        if (window_.getBankN() != previous_bankn) {
+            CartridgeEvents.romBankSwitch("MBC5", CartridgeConstants.ROM_BANK_N_START, previous_bankn, window_.getBankN());
+        }
+        if (ram_enabled_ != previous_ram_enabled) {
+            CartridgeEvents.ramEnable("MBC5", ram_enabled_);
+        }
+    }
+
+    @Override
+    public void writeRam(int address, int value) {
+        if (!ram_enabled_ || ram_ == null) {
+            if (statistics_ != null) {
+                statistics_.disabledRamWrite();
+            }
+            return;
+        }
+
+        ram_.write(address, value);
+    }
+
+    @Override
+    public void readRomBlock(int address, byte[] dst, int offset, int length) {
+        window_.readBlock(address, dst, offset, length);
+    }
+
+    @Override
+    public void readRamBlock(int address, byte[] dst, int offset, int length) {
+        if (!ram_enabled_ || ram_ == null) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead(length);
+            }
+            Arrays.fill(dst, offset, offset + length, (byte) 0xFF);
+            return;
+        }
+
+        ram_.readBlock(address, dst, offset, length);
+    }
+
+    @Override
+    public void reset() {
+        rom_bank_ = 1; // power-on value, 0 is selectable afterwards
+        ram_bank_ = 0;
+        ram_enabled_ = false;
+        motor_on_ = false;
+
+        updateRomBank();
+
+        if (ram_ != null) {
+            ram_.reset();
+        }
+    }
+
+    @Override
+    public void tick(int cycles) {
+        // no time-based behavior
+    }
+
+    @Override
+    public boolean needsTick() {
+        return false;
+    }
+
+    private void updateRomBank() {
+        window_.setBankN(rom_bank_);
+    }
+
+    @Override
+    public int getCurrentRomBank() {
+        return window_.getBankN();
+    }
+
+    // bank the RAM resolved, register value wrapped to the RAM size
+    @Override
+    public int getCurrentRamBank() {
+        return ram_ != null ? ram_.getCurrentBank() : 0;
+    }
+
+    @Override
+    public int getRomBank0Base() {
+        return 0;
+    }
+
+    @Override
+    public int getRomBankNBase() {
+        return window_.getBankNBase();
+    }
+
+    @Override
+    public int getRamBankBase() {
+        if (!ram_enabled_ || ram_ == null || !ram_.hasArray() || ram_.getBankCount() == 0) {
+            return -1;
+        }
+        return ram_.getCurrentBank() * CartridgeConstants.RAM_BANK_SIZE;
+    }
+
+    @Override
+    public boolean isRamEnabled() {
+        return ram_enabled_;
+    }
+
+    public boolean isRumble() {
+        return rumble_;
+    }
+
+    // Motor state, always false without rumble
+    public boolean isMotorOn() {
+        return motor_on_;
+    }
+
+    @Override
+    public int getStateSize() {
+        return 5;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.putShort((short) rom_bank_);
+        buffer.put((byte) ram_bank_);
+        buffer.put((byte) (ram_enabled_ ? 1 : 0));
+        buffer.put((byte) (motor_on_ ? 1 : 0));
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        rom_bank_ = buffer.getShort() & 0x1FF;
+        ram_bank_ = buffer.get() & (rumble_ ? 0x07 : 0x0F);
+        ram_enabled_ = buffer.get() != 0;
+        motor_on_ = buffer.get() != 0 && rumble_;
+
+        updateRomBank();
+
+        if (ram_ != null) {
+            ram_.selectBank(ram_bank_);
+        }
+    }
+
+    @Override
+    public void setStatistics(BankStatistics statistics) {
+        this.statistics_ = statistics;
+        window_.setStatistics(statistics);
+    }
+
+    @Override
+    public void setCoverage(RomCoverage coverage) {
+        window_.setCoverage(coverage);
+    }
+
+    @Override
+    public String getComponentName() {
+        return "MBC5";
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "mbc5{rom=%s, ram=%s, rom_bank=0x%03X, ram_bank=%d, ram_enabled=%s, rumble=%s}",
+                rom_.toString(),
+                ram_ != null ? ram_.toString() : "none",
+                window_.getBankN(),
+                getCurrentRamBank(),
+                ram_enabled_,
+                rumble_ ? (motor_on_ ? "on" : "off") : "none"
+        );
+    }
+
+}
@@ -0,0 +1,146 @@
+package cartridge.mbc;
+
+import cartridge.components.BankStatistics;
+import cartridge.components.RomCoverage;
+import cartridge.constants.CartridgeConstants;
+import cartridge.header.enums.RomSize;
+import cartridge.interfaces.ReadOnlyMemory;
+
+// ROM windows at 0x0000-0x3FFF and 0x4000-0x7FFF shared by the banked MBCs, the MBCs only decode registers.
+// Banks are resolved when a register is written, a read is then one array load (ReadOnlyMemory.getBankArray).
+final class RomBankWindow {
+
+    private final ReadOnlyMemory rom_;
+    private final int bank_count_;
+    private final int bank_mask_;
+
+    // Per window: bank, physical offset, bank array and its offset, null array = read through readByte
+    private int bank0_;
+    private int bank0_base_;
+    private byte[] bank0_data_;
+    private int bank0_offset_;
+
+    private int bankn_;
+    private int bankn_base_;
+    private byte[] bankn_data_;
+    private int bankn_offset_;
+
+    private BankStatistics statistics_; // null = off
+    private RomCoverage coverage_;      // null = off
+
+    RomBankWindow(ReadOnlyMemory rom) {
+        this.rom_ = rom;
+        this.bank_count_ = rom.getBankCount();
+        this.bank_mask_ = RomSize.bankMaskFor(bank_count_);
+
+        setBank0(0);
+        setBankN(1);
+    }
+
+    private int resolve(int bank) {
+        int resolved = bank & bank_mask_;
+
+        // Unofficial 72/80/96 bank sizes are not a power of 2, mask alone can overshoot
+        if (resolved >= bank_count_) {
+            resolved %= bank_count_;
+        }
+
+        return resolved;
+    }
+
+    // bank as written by the game, masked to the ROM size
+    void setBank0(int bank) {
+        bank0_ = resolve(bank);
+        bank0_base_ = bank0_ * CartridgeConstants.ROM_BANK_SIZE;
+        bank0_data_ = rom_.getBankArray(bank0_);
+        bank0_offset_ = rom_.getBankArrayOffset(bank0_);
+    }
+
+    void setBankN(int bank) {
+        bankn_ = resolve(bank);
+        bankn_base_ = bankn_ * CartridgeConstants.ROM_BANK_SIZE;
+        bankn_data_ = rom_.getBankArray(bankn_);
+        bankn_offset_ = rom_.getBankArrayOffset(bankn_);
+    }
+
+    int read(int address) {
+        if (address < 0x4000) {
+            if (statistics_ != null) {
+                statistics_.romRead(bank0_);
+            }
+            return read(bank0_data_, bank0_offset_, bank0_base_, address);
+        }
+
+        if (statistics_ != null) {
+            statistics_.romRead(bankn_);
+        }
+        return read(bankn_data_, bankn_offset_, bankn_base_, address & 0x3FFF);
+    }
+
+    private int read(byte[] data, int data_offset, int bank_base, int offset) {
+        if (coverage_ != null) {
+            coverage_.mark(bank_base + offset);
+        }
+
+        if (data != null) {
+            return Byte.toUnsignedInt(data[data_offset + offset]);
+        }
+
+        // mapped / compressed ROM
+        return rom_.readByte(bank_base + offset);
+    }
+
+    void readBlock(int address, byte[] dst, int offset, int length) {
+        while (length > 0) {
+            // split at the bank 0 / bank N boundary, one copy per bank
+            boolean bank0 = address < 0x4000;
+            int bank_offset = address & 0x3FFF;
+            int span = Math.min(length, 0x4000 - bank_offset);
+            int physical_address = (bank0 ? bank0_base_ : bankn_base_) + bank_offset;
+
+            if (statistics_ != null) {
+                statistics_.romRead(bank0 ? bank0_ : bankn_, span);
+            }
+
+            if (coverage_ != null) {
+                coverage_.mark(physical_address, span);
+            }
+
+            byte[] data = bank0 ? bank0_data_ : bankn_data_;
+            if (data != null) {
+                System.arraycopy(data, (bank0 ? bank0_offset_ : bankn_offset_) + bank_offset, dst, offset, span);
+            } else {
+                rom_.readBlock(physical_address, dst, offset, span);
+            }
+
+            address = (address + span) & 0x7FFF;
+            offset += span;
+            length -= span;
+        }
+    }
+
+    int getBank0() {
+        return bank0_;
+    }
+
+    int getBankN() {
+        return bankn_;
+    }
+
+    int getBank0Base() {
+        return bank0_base_;
+    }
+
+    int getBankNBase() {
+        return bankn_base_;
+    }
+
+    void setStatistics(BankStatistics statistics) {
+        this.statistics_ = statistics;
+    }
+
+    void setCoverage(RomCoverage coverage) {
+        this.coverage_ = coverage;
+    }
+
+}
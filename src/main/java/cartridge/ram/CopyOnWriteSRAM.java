@@ -0,0 +1,424 @@
+package cartridge.ram;
+
+import cartridge.components.BankStatistics;
+import cartridge.constants.CartridgeConstants;
+import cartridge.events.CartridgeEvents;
+import cartridge.interfaces.ExternalMemory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Paged RAM whose pages are shared between forks, a fork copies a page the first time it writes to it.
+// Pages not owned by this instance are never written in place, so shared pages stay immutable.
+public class CopyOnWriteSRAM implements ExternalMemory {
+
+    public static final int PAGE_SHIFT = SRAM.DIRTY_PAGE_SHIFT;
+    public static final int PAGE_SIZE = 1 << PAGE_SHIFT;     // 256 bytes
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    // uninitialized contents, shared by every instance and never owned
+    private static final byte[] BLANK_PAGE = blankPage();
+
+    private final int total_size_;
+    private final int bank_size_;
+    private final int bank_count_;
+    private final int page_count_;
+
+    private byte[][] pages_;
+    private boolean table_shared_;         // pages_ itself is shared, cloned before the first owned page
+    private final long[] owned_pages_;     // 1 bit per page written since the last fork
+    private int owned_count_;
+
+    private int current_bank_;
+    private boolean enabled_;
+
+    private BankStatistics statistics_; // null = off
+
+    public CopyOnWriteSRAM(int size_in_bytes) {
+        if (size_in_bytes <= 0) { throw new IllegalArgumentException("SRAM Negative"); }
+
+        // power of 2
+        if ((size_in_bytes & (size_in_bytes - 1)) != 0) { throw new IllegalArgumentException("SRAM size must be power of 2"); }
+
+        this.total_size_ = size_in_bytes;
+        this.bank_size_ = CartridgeConstants.RAM_BANK_SIZE;
+        this.bank_count_ = size_in_bytes / bank_size_;
+        this.page_count_ = (size_in_bytes + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+        this.owned_pages_ = new long[(page_count_ + 63) >>> 6];
+
+        this.current_bank_ = 0;
+        this.enabled_ = false;
+
+        clear();
+    }
+
+    // Fork, shares the page table until either side writes
+    private CopyOnWriteSRAM(CopyOnWriteSRAM parent) {
+        this.total_size_ = parent.total_size_;
+        this.bank_size_ = parent.bank_size_;
+        this.bank_count_ = parent.bank_count_;
+        this.page_count_ = parent.page_count_;
+        this.owned_pages_ = new long[parent.owned_pages_.length];
+
+        this.pages_ = parent.pages_;
+        this.table_shared_ = true;
+        this.owned_count_ = 0;
+
+        this.current_bank_ = parent.current_bank_;
+        this.enabled_ = parent.enabled_;
+    }
+
+    // Paged copy of any RAM, the starting point for forking a flat SRAM
+    public static CopyOnWriteSRAM copyOf(ExternalMemory source) {
+        if (source == null) { throw new IllegalArgumentException("Source null"); }
+
+        CopyOnWriteSRAM copy = new CopyOnWriteSRAM(source.getSize());
+        copy.syncFrom(source);
+        return copy;
+    }
+
+    // O(1), neither side owns any page afterwards so both copy before their next write
+    public CopyOnWriteSRAM fork() {
+        Arrays.fill(owned_pages_, 0L);
+        owned_count_ = 0;
+        table_shared_ = true;
+
+        return new CopyOnWriteSRAM(this);
+    }
+
+    // Pages whose contents differ from source are replaced, identical pages stay shared
+    public void syncFrom(ExternalMemory source) {
+        if (source.getSize() != total_size_) { throw new IllegalArgumentException("RAM size mismatch: " + source.getSize() + " != " + total_size_); }
+
+        for (int page = 0; page < page_count_; page++) {
+            syncPage(source, page);
+        }
+
+        current_bank_ = source.getCurrentBank();
+        enabled_ = source.isEnabled();
+    }
+
+    // Same as syncFrom, limited to the pages set in the bitset (SRAM.getDirtyPagesSince)
+    public void syncPages(ExternalMemory source, long[] pages) {
+        if (source.getSize() != total_size_) { throw new IllegalArgumentException("RAM size mismatch: " + source.getSize() + " != " + total_size_); }
+
+        for (int word = 0; word < owned_pages_.length; word++) {
+            long bits = pages[word];
+
+            while (bits != 0) {
+                syncPage(source, (word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+
+        current_bank_ = source.getCurrentBank();
+        enabled_ = source.isEnabled();
+    }
+
+    private void syncPage(ExternalMemory source, int page) {
+        int start = page << PAGE_SHIFT;
+        int end = Math.min(start + PAGE_SIZE, total_size_);
+        byte[] data = pages_[page];
+
+        if (source.hasArray()) {
+            if (Arrays.equals(source.getData(), start, end, data, 0, end - start)) {
+                return;
+            }
+            System.arraycopy(source.getData(), start, ownPage(page), 0, end - start);
+            return;
+        }
+
+        for (int i = start; i < end; i++) {
+            byte value = (byte) source.readPhysical(i);
+            if (data[i - start] != value) {
+                data = ownPage(page);
+                data[i - start] = value;
+            }
+        }
+    }
+
+    @Override
+    public int read(int address) {
+        if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead();
+            }
+            return 0xFF; // open bus
+        }
+
+        // 0xA000-0xBFFF => 0x0000-0x1FFF: 8kb mask
+        int physical_address = (current_bank_ * bank_size_) + (address & 0x1FFF);
+
+        if (physical_address >= total_size_) {
+            return 0xFF;
+        }
+
+        if (statistics_ != null) {
+            statistics_.ramRead(current_bank_);
+        }
+
+        return Byte.toUnsignedInt(pages_[physical_address >>> PAGE_SHIFT][physical_address & PAGE_MASK]);
+    }
+
+    @Override
+    public void write(int address, int value) {
+        if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamWrite();
+            }
+            return; // ignore
+        }
+
+        // 0xA000-0xBFFF => 0x0000-0x1FFF: 8kb mask
+        int physical_address = (current_bank_ * bank_size_) + (address & 0x1FFF);
+
+        if (physical_address >= total_size_) {
+            return; // ignore
+        }
+
+        if (statistics_ != null) {
+            statistics_.ramWrite(current_bank_);
+        }
+
+        writeOwned(physical_address, value);
+    }
+
+    private void writeOwned(int physical_address, int value) {
+        int page = physical_address >>> PAGE_SHIFT;
+        byte[] data = (owned_pages_[page >>> 6] & (1L << page)) != 0 ? pages_[page] : ownPage(page);
+
+        data[physical_address & PAGE_MASK] = (byte) (value & 0xFF);
+    }
+
+    // First write to a shared page, private copy from here on
+    private byte[] ownPage(int page) {
+        if ((owned_pages_[page >>> 6] & (1L << page)) != 0) {
+            return pages_[page];
+        }
+
+        if (table_shared_) {
+            pages_ = pages_.clone();
+            table_shared_ = false;
+        }
+
+        byte[] data = pages_[page].clone();
+        pages_[page] = data;
+        owned_pages_[page >>> 6] |= 1L << page;
+        owned_count_++;
+
+        return data;
+    }
+
+    @Override
+    public void readBlock(int address, byte[] dst, int offset, int length) {
+        if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead(length);
+            }
+            Arrays.fill(dst, offset, offset + length, (byte) 0xFF); // open bus
+            return;
+        }
+
+        int bank_start = current_bank_ * bank_size_;
+
+        while (length > 0) {
+            // one copy per page, wraps at 8kb like read()
+            int bank_offset = address & 0x1FFF;
+            int physical_address = bank_start + bank_offset;
+            int span = Math.min(length, Math.min(0x2000 - bank_offset, PAGE_SIZE - (physical_address & PAGE_MASK)));
+
+            if (physical_address < total_size_) {
+                if (statistics_ != null) {
+                    statistics_.ramRead(current_bank_, span);
+                }
+                System.arraycopy(pages_[physical_address >>> PAGE_SHIFT], physical_address & PAGE_MASK, dst, offset, span);
+            } else {
+                Arrays.fill(dst, offset, offset + span, (byte) 0xFF);
+            }
+
+            address += span;
+            offset += span;
+            length -= span;
+        }
+    }
+
+    @Override
+    public int readPhysical(int physical_address) {
+        if (physical_address < 0 || physical_address >= total_size_) {
+            return 0xFF;
+        }
+        return Byte.toUnsignedInt(pages_[physical_address >>> PAGE_SHIFT][physical_address & PAGE_MASK]);
+    }
+
+    @Override
+    public void writePhysical(int physical_address, int value) {
+        if (physical_address < 0 || physical_address >= total_size_) {
+            return;
+        }
+
+        writeOwned(physical_address, value);
+    }
+
+    @Override
+    public void selectBank(int bank) {
+        int previous_bank = current_bank_;
+
+        if (bank_count_ > 0) {
+            current_bank_ = bank % bank_count_;
+        } else {
+            current_bank_ = 0;
+        }
+
+        // called on every MBC RAM access, only actual changes are events
+        if (current_bank_ != previous_bank && CartridgeEvents.isRecording()) {
+            CartridgeEvents.ramBankSelect("CopyOnWriteSRAM", previous_bank, current_bank_);
+        }
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        if (enabled != enabled_ && CartridgeEvents.isRecording()) {
+            CartridgeEvents.ramEnable("CopyOnWriteSRAM", enabled);
+        }
+
+        this.enabled_ = enabled;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled_;
+    }
+
+    @Override
+    public int getCurrentBank() {
+        return current_bank_;
+    }
+
+    @Override
+    public int getBankCount() {
+        return bank_count_;
+    }
+
+    @Override
+    public int getSize() {
+        return total_size_;
+    }
+
+    // paged, the bus reads it through the MBC
+    @Override
+    public boolean hasArray() {
+        return false;
+    }
+
+    @Override
+    public byte[] getData() {
+        return null; // no heap array
+    }
+
+    @Override
+    public void loadData(byte[] data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Data null");
+        }
+
+        for (int i = 0; i < total_size_; i++) {
+            if (pages_[i >>> PAGE_SHIFT][i & PAGE_MASK] != data[i]) {
+                writeOwned(i, data[i]);
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        current_bank_ = 0;
+        enabled_ = false;
+    }
+
+    @Override
+    public void clear() {
+        // uninit ram behavior, every page points at the shared blank page
+        byte[][] pages = new byte[page_count_][];
+        Arrays.fill(pages, BLANK_PAGE);
+
+        this.pages_ = pages;
+        this.table_shared_ = false;
+        Arrays.fill(owned_pages_, 0L);
+        this.owned_count_ = 0;
+    }
+
+    // bank, enabled, size, data
+    @Override
+    public int getStateSize() {
+        return 6 + total_size_;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.put((byte) current_bank_);
+        buffer.put((byte) (enabled_ ? 1 : 0));
+        buffer.putInt(total_size_);
+
+        for (int page = 0; page < page_count_; page++) {
+            buffer.put(pages_[page], 0, Math.min(PAGE_SIZE, total_size_ - (page << PAGE_SHIFT)));
+        }
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        int bank = buffer.get() & 0xFF;
+        boolean enabled = buffer.get() != 0;
+        int size = buffer.getInt();
+
+        if (size != total_size_) { throw new IllegalArgumentException("Save state RAM size mismatch: " + size + " != " + total_size_); }
+
+        // unchanged bytes keep their pages shared
+        int position = buffer.position();
+        for (int i = 0; i < total_size_; i++) {
+            byte value = buffer.get(position + i);
+            if (pages_[i >>> PAGE_SHIFT][i & PAGE_MASK] != value) {
+                writeOwned(i, value);
+            }
+        }
+        buffer.position(position + total_size_);
+
+        selectBank(bank);
+        enabled_ = enabled;
+    }
+
+    @Override
+    public void setStatistics(BankStatistics statistics) {
+        this.statistics_ = statistics;
+    }
+
+    // Pages copied since the last fork, private bytes = owned pages * PAGE_SIZE
+    public int getOwnedPageCount() {
+        return owned_count_;
+    }
+
+    public long getPrivateBytes() {
+        return (long) owned_count_ * PAGE_SIZE + (table_shared_ ? 0 : 8L * page_count_);
+    }
+
+    public int getPageCount() {
+        return page_count_;
+    }
+
+    private static byte[] blankPage() {
+        byte[] page = new byte[PAGE_SIZE];
+        Arrays.fill(page, (byte) 0xFF);
+        return page;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "cow_sram{size=%d bytes, banks=%d, current_bank=%d, enabled=%s, owned_pages=%d/%d}",
+                total_size_,
+                bank_count_,
+                current_bank_,
+                enabled_,
+                owned_count_,
+                page_count_
+        );
+    }
+}
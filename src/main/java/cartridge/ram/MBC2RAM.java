@@ -0,0 +1,222 @@
+package cartridge.ram;
+
+import cartridge.components.BankStatistics;
+import cartridge.events.CartridgeEvents;
+import cartridge.interfaces.ExternalMemory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// MBC2 built-in RAM, 512 x 4 bit, two nibbles packed per byte (even address = low nibble).
+// Reads return the nibble with the upper 4 bits set, the 512 entries repeat across 0xA000-0xBFFF.
+// Physical / save file layout is one nibble per byte (512 bytes), like other emulators.
+public class MBC2RAM implements ExternalMemory {
+
+    public static final int SIZE = 512;         // nibbles
+    private static final int ADDRESS_MASK = SIZE - 1;
+
+    private final byte[] data_;                 // SIZE / 2 bytes
+    private boolean enabled_;
+
+    private BankStatistics statistics_; // null = off
+
+    public MBC2RAM() {
+        this.data_ = new byte[SIZE >>> 1];
+        this.enabled_ = false;
+
+        clear();
+    }
+
+    // Independent copy, contents and enable flag
+    public MBC2RAM copy() {
+        MBC2RAM copy = new MBC2RAM();
+        System.arraycopy(data_, 0, copy.data_, 0, data_.length);
+        copy.enabled_ = enabled_;
+        return copy;
+    }
+
+    @Override
+    public int read(int address) {
+        if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead();
+            }
+            return 0xFF; // open bus
+        }
+
+        if (statistics_ != null) {
+            statistics_.ramRead(0);
+        }
+
+        return readNibble(address & ADDRESS_MASK);
+    }
+
+    @Override
+    public void write(int address, int value) {
+        if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamWrite();
+            }
+            return; // ignore
+        }
+
+        if (statistics_ != null) {
+            statistics_.ramWrite(0);
+        }
+
+        writeNibble(address & ADDRESS_MASK, value);
+    }
+
+    // 0xF0 | nibble, shift picks the half of the byte
+    private int readNibble(int index) {
+        return 0xF0 | ((data_[index >>> 1] >>> ((index & 1) << 2)) & 0x0F);
+    }
+
+    private void writeNibble(int index, int value) {
+        int shift = (index & 1) << 2;
+        int packed = data_[index >>> 1];
+
+        data_[index >>> 1] = (byte) ((packed & ~(0x0F << shift)) | ((value & 0x0F) << shift));
+    }
+
+    @Override
+    public void readBlock(int address, byte[] dst, int offset, int length) {
+        if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead(length);
+            }
+            Arrays.fill(dst, offset, offset + length, (byte) 0xFF); // open bus
+            return;
+        }
+
+        if (statistics_ != null) {
+            statistics_.ramRead(0, length);
+        }
+
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = (byte) readNibble((address + i) & ADDRESS_MASK);
+        }
+    }
+
+    @Override
+    public int readPhysical(int physical_address) {
+        if (physical_address < 0 || physical_address >= SIZE) {
+            return 0xFF;
+        }
+        return readNibble(physical_address);
+    }
+
+    @Override
+    public void writePhysical(int physical_address, int value) {
+        if (physical_address < 0 || physical_address >= SIZE) {
+            return;
+        }
+
+        writeNibble(physical_address, value);
+    }
+
+    // single bank
+    @Override
+    public void selectBank(int bank) {
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        if (enabled != enabled_ && CartridgeEvents.isRecording()) {
+            CartridgeEvents.ramEnable("MBC2RAM", enabled);
+        }
+
+        this.enabled_ = enabled;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled_;
+    }
+
+    @Override
+    public int getCurrentBank() {
+        return 0;
+    }
+
+    @Override
+    public int getBankCount() {
+        return 1;
+    }
+
+    @Override
+    public int getSize() {
+        return SIZE;
+    }
+
+    // packed, the bus reads it through the MBC
+    @Override
+    public boolean hasArray() {
+        return false;
+    }
+
+    @Override
+    public byte[] getData() {
+        return null; // packed nibbles, use readPhysical
+    }
+
+    // one nibble per byte, upper bits ignored
+    @Override
+    public void loadData(byte[] data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Data null");
+        }
+        if (data.length < SIZE) { throw new IllegalArgumentException("MBC2 RAM data too short: " + data.length + " < " + SIZE); }
+
+        for (int i = 0; i < SIZE; i++) {
+            writeNibble(i, data[i]);
+        }
+    }
+
+    @Override
+    public void reset() {
+        enabled_ = false;
+    }
+
+    @Override
+    public void clear() {
+        // same uninitialized value as SRAM
+        Arrays.fill(data_, (byte) 0xFF);
+    }
+
+    // bank, enabled, size, packed data
+    @Override
+    public int getStateSize() {
+        return 6 + data_.length;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.put((byte) 0);
+        buffer.put((byte) (enabled_ ? 1 : 0));
+        buffer.putInt(SIZE);
+        buffer.put(data_);
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        buffer.get(); // bank
+        boolean enabled = buffer.get() != 0;
+        int size = buffer.getInt();
+
+        if (size != SIZE) { throw new IllegalArgumentException("Save state RAM size mismatch: " + size + " != " + SIZE); }
+
+        buffer.get(data_);
+        enabled_ = enabled;
+    }
+
+    @Override
+    public void setStatistics(BankStatistics statistics) {
+        this.statistics_ = statistics;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("mbc2_ram{size=%d x 4 bit, enabled=%s}", SIZE, enabled_);
+    }
+}
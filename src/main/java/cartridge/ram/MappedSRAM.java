@@ -0,0 +1,384 @@
+package cartridge.ram;
+
+import cartridge.components.BankStatistics;
+import cartridge.constants.CartridgeConstants;
+import cartridge.events.CartridgeEvents;
+import cartridge.interfaces.ExternalMemory;
+import cartridge.interfaces.PageTracked;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// SRAM backed by a memory mapped .sav file, writes land in the page cache and flush only syncs touched pages
+public class MappedSRAM implements ExternalMemory, PageTracked {
+
+    private static final int SYNC_PAGE_SHIFT = 12;  // 4 KiB, OS page
+    private static final int SYNC_PAGE_SIZE = 1 << SYNC_PAGE_SHIFT;
+
+    private final MappedByteBuffer data_;
+    private final int total_size_;
+    private final int bank_size_;
+    private final int bank_count_;
+
+    // 1 bit per 4 KiB page written since the last flush
+    private final long[] touched_pages_;
+
+    // 256 byte page generations for incremental readers (fork)
+    private final PageGenerations generations_;
+
+    private int current_bank_;
+    private boolean enabled_;
+
+    private BankStatistics statistics_; // null = off
+
+    private MappedSRAM(MappedByteBuffer data, int size_in_bytes) {
+        this.data_ = data;
+        this.total_size_ = size_in_bytes;
+        this.bank_size_ = CartridgeConstants.RAM_BANK_SIZE;
+        this.bank_count_ = size_in_bytes / bank_size_;
+
+        int page_count = (size_in_bytes + SYNC_PAGE_SIZE - 1) >>> SYNC_PAGE_SHIFT;
+        this.touched_pages_ = new long[(page_count + 63) >>> 6];
+        this.generations_ = new PageGenerations(size_in_bytes);
+
+        this.current_bank_ = 0;
+        this.enabled_ = false;
+    }
+
+    // Creates or grows the file, bytes not yet in the file start as 0xFF like SRAM
+    public static MappedSRAM open(Path save_path, int size_in_bytes) throws IOException {
+        if (save_path == null) { throw new IllegalArgumentException("save_path null"); }
+        if (size_in_bytes <= 0) { throw new IllegalArgumentException("SRAM Negative"); }
+
+        // power of 2
+        if ((size_in_bytes & (size_in_bytes - 1)) != 0) { throw new IllegalArgumentException("SRAM size must be power of 2"); }
+
+        try (FileChannel channel = FileChannel.open(save_path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            long existing = Math.min(channel.size(), size_in_bytes);
+
+            // mapping past the end grows the file, stays valid after close
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size_in_bytes);
+            MappedSRAM sram = new MappedSRAM(buffer, size_in_bytes);
+
+            for (int i = (int) existing; i < size_in_bytes; i++) {
+                buffer.put(i, (byte) 0xFF);
+            }
+            if (existing < size_in_bytes) {
+                sram.markTouched((int) existing, size_in_bytes - (int) existing);
+                sram.flush();
+            }
+
+            return sram;
+        }
+    }
+
+    @Override
+    public int read(int address) {
+        if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead();
+            }
+            return 0xFF; // open bus
+        }
+
+        // 0xA000-0xBFFF => 0x0000-0x1FFF: 8kb mask
+        int offset = address & 0x1FFF;
+
+        int physical_address = (current_bank_ * bank_size_) + offset;
+
+        if (physical_address >= total_size_) {
+            return 0xFF;
+        }
+
+        if (statistics_ != null) {
+            statistics_.ramRead(current_bank_);
+        }
+
+        return Byte.toUnsignedInt(data_.get(physical_address));
+    }
+
+    @Override
+    public void write(int address, int value) {
+        if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamWrite();
+            }
+            return; // ignore
+        }
+
+        // 0xA000-0xBFFF => 0x0000-0x1FFF: 8kb mask
+        int offset = address & 0x1FFF;
+
+        int physical_address = (current_bank_ * bank_size_) + offset;
+
+        if (physical_address >= total_size_) {
+            return; // ignore
+        }
+
+        if (statistics_ != null) {
+            statistics_.ramWrite(current_bank_);
+        }
+
+        data_.put(physical_address, (byte) (value & 0xFF));
+
+        int page = physical_address >>> SYNC_PAGE_SHIFT;
+        touched_pages_[page >>> 6] |= 1L << page;
+        generations_.mark(physical_address);
+    }
+
+    @Override
+    public void readBlock(int address, byte[] dst, int offset, int length) {
+        if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead(length);
+            }
+            Arrays.fill(dst, offset, offset + length, (byte) 0xFF); // open bus
+            return;
+        }
+
+        int bank_start = current_bank_ * bank_size_;
+
+        while (length > 0) {
+            // 0xA000-0xBFFF => 0x0000-0x1FFF: 8kb mask, wraps like read()
+            int bank_offset = address & 0x1FFF;
+            int span = Math.min(length, 0x2000 - bank_offset);
+            int physical_address = bank_start + bank_offset;
+
+            if (physical_address + span <= total_size_) {
+                if (statistics_ != null) {
+                    statistics_.ramRead(current_bank_, span);
+                }
+                data_.get(physical_address, dst, offset, span);
+            } else {
+                for (int i = 0; i < span; i++) {
+                    dst[offset + i] = (byte) read(address + i);
+                }
+            }
+
+            address += span;
+            offset += span;
+            length -= span;
+        }
+    }
+
+    // msync of the touched pages only
+    public void flush() {
+        int page_count = (total_size_ + SYNC_PAGE_SIZE - 1) >>> SYNC_PAGE_SHIFT;
+
+        int page = 0;
+        while (page < page_count) {
+            if ((touched_pages_[page >>> 6] & (1L << page)) == 0) {
+                page++;
+                continue;
+            }
+
+            // contiguous run, one force call per run
+            int first = page;
+            while (page < page_count && (touched_pages_[page >>> 6] & (1L << page)) != 0) {
+                page++;
+            }
+
+            int start = first << SYNC_PAGE_SHIFT;
+            int end = Math.min(page << SYNC_PAGE_SHIFT, total_size_);
+            data_.force(start, end - start);
+        }
+
+        Arrays.fill(touched_pages_, 0L);
+    }
+
+    public boolean hasUnflushedWrites() {
+        for (long word : touched_pages_) {
+            if (word != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void markTouched(int start, int length) {
+        for (int page = start >>> SYNC_PAGE_SHIFT; page <= (start + length - 1) >>> SYNC_PAGE_SHIFT; page++) {
+            touched_pages_[page >>> 6] |= 1L << page;
+        }
+        for (int page = start >>> SRAM.DIRTY_PAGE_SHIFT; page <= (start + length - 1) >>> SRAM.DIRTY_PAGE_SHIFT; page++) {
+            generations_.mark(page << SRAM.DIRTY_PAGE_SHIFT);
+        }
+    }
+
+    @Override
+    public long checkpoint() {
+        return generations_.checkpoint();
+    }
+
+    @Override
+    public boolean isPageDirtySince(int page, long generation) {
+        return generations_.isPageDirtySince(page, generation);
+    }
+
+    // O(page count), one generation compare per 256 byte page
+    @Override
+    public int getDirtyPagesSince(long generation, long[] dst) {
+        return generations_.getDirtyPagesSince(generation, dst);
+    }
+
+    @Override
+    public int getPageCount() {
+        return generations_.getPageCount();
+    }
+
+    @Override
+    public void setStatistics(BankStatistics statistics) {
+        this.statistics_ = statistics;
+    }
+
+    @Override
+    public int readPhysical(int physical_address) {
+        if (physical_address < 0 || physical_address >= total_size_) {
+            return 0xFF;
+        }
+        return Byte.toUnsignedInt(data_.get(physical_address));
+    }
+
+    @Override
+    public void writePhysical(int physical_address, int value) {
+        if (physical_address < 0 || physical_address >= total_size_) {
+            return;
+        }
+
+        data_.put(physical_address, (byte) (value & 0xFF));
+
+        int page = physical_address >>> SYNC_PAGE_SHIFT;
+        touched_pages_[page >>> 6] |= 1L << page;
+        generations_.mark(physical_address);
+    }
+
+    @Override
+    public void selectBank(int bank) {
+        int previous_bank = current_bank_;
+
+        if (bank_count_ > 0) {
+            current_bank_ = bank % bank_count_;
+        } else {
+            current_bank_ = 0;
+        }
+
+        // called on every MBC RAM access, only actual changes are events
+        if (current_bank_ != previous_bank && CartridgeEvents.isRecording()) {
+            CartridgeEvents.ramBankSelect("MappedSRAM", previous_bank, current_bank_);
+        }
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        if (enabled != enabled_ && CartridgeEvents.isRecording()) {
+            CartridgeEvents.ramEnable("MappedSRAM", enabled);
+        }
+
+        this.enabled_ = enabled;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled_;
+    }
+
+    @Override
+    public int getCurrentBank() {
+        return current_bank_;
+    }
+
+    @Override
+    public int getBankCount() {
+        return bank_count_;
+    }
+
+    @Override
+    public int getSize() {
+        return total_size_;
+    }
+
+    @Override
+    public boolean hasArray() {
+        return false;
+    }
+
+    @Override
+    public byte[] getData() {
+        return null; // no heap array
+    }
+
+    @Override
+    public void loadData(byte[] data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Data null");
+        }
+
+        data_.put(0, data, 0, total_size_);
+        markTouched(0, total_size_);
+    }
+
+    // bank, enabled, size, data
+    @Override
+    public int getStateSize() {
+        return 6 + total_size_;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.put((byte) current_bank_);
+        buffer.put((byte) (enabled_ ? 1 : 0));
+        buffer.putInt(total_size_);
+        // absolute bulk copy, no duplicate buffer
+        int position = buffer.position();
+        buffer.put(position, data_, 0, total_size_);
+        buffer.position(position + total_size_);
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        int bank = buffer.get() & 0xFF;
+        boolean enabled = buffer.get() != 0;
+        int size = buffer.getInt();
+
+        if (size != total_size_) { throw new IllegalArgumentException("Save state RAM size mismatch: " + size + " != " + total_size_); }
+
+        int position = buffer.position();
+        data_.put(0, buffer, position, total_size_);
+        buffer.position(position + total_size_);
+        markTouched(0, total_size_);
+
+        selectBank(bank);
+        enabled_ = enabled;
+    }
+
+    @Override
+    public void reset() {
+        current_bank_ = 0;
+        enabled_ = false;
+    }
+
+    @Override
+    public void clear() {
+        // uninit ram behavior. Needs to be checked especially with open bus
+        for (int i = 0; i < total_size_; i++) {
+            data_.put(i, (byte) 0xFF);
+        }
+        markTouched(0, total_size_);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "mapped_sram{size=%d bytes, banks=%d, current_bank=%d, enabled=%s, unflushed=%s}",
+                total_size_,
+                bank_count_,
+                current_bank_,
+                enabled_,
+                hasUnflushedWrites()
+        );
+    }
+}
@@ -0,0 +1,315 @@
+package cartridge.ram;
+
+import cartridge.components.BankStatistics;
+import cartridge.constants.CartridgeConstants;
+import cartridge.events.CartridgeEvents;
+import cartridge.interfaces.ExternalMemory;
+import cartridge.interfaces.PageTracked;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// SRAM in a slot of an off-heap SramPool, nothing on the GC heap but this object.
+// The slot goes back to the pool on release(), the RAM must not be used afterwards.
+public class OffHeapSRAM implements ExternalMemory, PageTracked {
+
+    private final SramPool pool_;
+    private ByteBuffer data_;       // null once released
+    private final int total_size_;
+    private final int bank_size_;
+    private final int bank_count_;
+
+    private int current_bank_;
+    private boolean enabled_;
+
+    private BankStatistics statistics_; // null = off
+
+    // 256 byte page generations for incremental readers (fork)
+    private final PageGenerations generations_;
+
+    OffHeapSRAM(SramPool pool, ByteBuffer data, int size_in_bytes) {
+        this.pool_ = pool;
+        this.data_ = data;
+        this.total_size_ = size_in_bytes;
+        this.bank_size_ = CartridgeConstants.RAM_BANK_SIZE;
+        this.bank_count_ = size_in_bytes / bank_size_;
+
+        this.current_bank_ = 0;
+        this.enabled_ = false;
+        this.generations_ = new PageGenerations(size_in_bytes);
+
+        // slot may hold a previous cartridge's RAM
+        clear();
+    }
+
+    // Slot back to the pool, later accesses fail instead of touching another cartridge's RAM
+    public void release() {
+        if (data_ == null) {
+            return; // released twice
+        }
+
+        ByteBuffer slot = data_;
+        data_ = null;
+        pool_.release(slot);
+    }
+
+    public boolean isReleased() {
+        return data_ == null;
+    }
+
+    @Override
+    public int read(int address) {
+        if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead();
+            }
+            return 0xFF; // open bus
+        }
+
+        // 0xA000-0xBFFF => 0x0000-0x1FFF: 8kb mask
+        int offset = address & 0x1FFF;
+
+        int physical_address = (current_bank_ * bank_size_) + offset;
+
+        if (physical_address >= total_size_) {
+            return 0xFF;
+        }
+
+        if (statistics_ != null) {
+            statistics_.ramRead(current_bank_);
+        }
+
+        return Byte.toUnsignedInt(data_.get(physical_address));
+    }
+
+    @Override
+    public void write(int address, int value) {
+        if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamWrite();
+            }
+            return; // ignore
+        }
+
+        // 0xA000-0xBFFF => 0x0000-0x1FFF: 8kb mask
+        int offset = address & 0x1FFF;
+
+        int physical_address = (current_bank_ * bank_size_) + offset;
+
+        if (physical_address >= total_size_) {
+            return; // ignore
+        }
+
+        if (statistics_ != null) {
+            statistics_.ramWrite(current_bank_);
+        }
+
+        data_.put(physical_address, (byte) (value & 0xFF));
+        generations_.mark(physical_address);
+    }
+
+    @Override
+    public void readBlock(int address, byte[] dst, int offset, int length) {
+        if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead(length);
+            }
+            Arrays.fill(dst, offset, offset + length, (byte) 0xFF); // open bus
+            return;
+        }
+
+        int bank_start = current_bank_ * bank_size_;
+
+        while (length > 0) {
+            // 0xA000-0xBFFF => 0x0000-0x1FFF: 8kb mask, wraps like read()
+            int bank_offset = address & 0x1FFF;
+            int span = Math.min(length, 0x2000 - bank_offset);
+            int physical_address = bank_start + bank_offset;
+
+            if (physical_address + span <= total_size_) {
+                if (statistics_ != null) {
+                    statistics_.ramRead(current_bank_, span);
+                }
+                data_.get(physical_address, dst, offset, span);
+            } else {
+                for (int i = 0; i < span; i++) {
+                    dst[offset + i] = (byte) read(address + i);
+                }
+            }
+
+            address += span;
+            offset += span;
+            length -= span;
+        }
+    }
+
+    @Override
+    public void setStatistics(BankStatistics statistics) {
+        this.statistics_ = statistics;
+    }
+
+    @Override
+    public int readPhysical(int physical_address) {
+        if (physical_address < 0 || physical_address >= total_size_) {
+            return 0xFF;
+        }
+        return Byte.toUnsignedInt(data_.get(physical_address));
+    }
+
+    @Override
+    public void writePhysical(int physical_address, int value) {
+        if (physical_address < 0 || physical_address >= total_size_) {
+            return;
+        }
+
+        data_.put(physical_address, (byte) (value & 0xFF));
+        generations_.mark(physical_address);
+    }
+
+    @Override
+    public void selectBank(int bank) {
+        int previous_bank = current_bank_;
+
+        if (bank_count_ > 0) {
+            current_bank_ = bank % bank_count_;
+        } else {
+            current_bank_ = 0;
+        }
+
+        // called on every MBC RAM access, only actual changes are events
+        if (current_bank_ != previous_bank && CartridgeEvents.isRecording()) {
+            CartridgeEvents.ramBankSelect("OffHeapSRAM", previous_bank, current_bank_);
+        }
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        if (enabled != enabled_ && CartridgeEvents.isRecording()) {
+            CartridgeEvents.ramEnable("OffHeapSRAM", enabled);
+        }
+
+        this.enabled_ = enabled;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled_;
+    }
+
+    @Override
+    public int getCurrentBank() {
+        return current_bank_;
+    }
+
+    @Override
+    public int getBankCount() {
+        return bank_count_;
+    }
+
+    @Override
+    public int getSize() {
+        return total_size_;
+    }
+
+    @Override
+    public boolean hasArray() {
+        return false;
+    }
+
+    @Override
+    public byte[] getData() {
+        return null; // no heap array
+    }
+
+    @Override
+    public void loadData(byte[] data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Data null");
+        }
+
+        data_.put(0, data, 0, total_size_);
+        generations_.markAll();
+    }
+
+    // bank, enabled, size, data
+    @Override
+    public int getStateSize() {
+        return 6 + total_size_;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.put((byte) current_bank_);
+        buffer.put((byte) (enabled_ ? 1 : 0));
+        buffer.putInt(total_size_);
+        // absolute bulk copy, no duplicate buffer
+        int position = buffer.position();
+        buffer.put(position, data_, 0, total_size_);
+        buffer.position(position + total_size_);
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        int bank = buffer.get() & 0xFF;
+        boolean enabled = buffer.get() != 0;
+        int size = buffer.getInt();
+
+        if (size != total_size_) { throw new IllegalArgumentException("Save state RAM size mismatch: " + size + " != " + total_size_); }
+
+        int position = buffer.position();
+        data_.put(0, buffer, position, total_size_);
+        buffer.position(position + total_size_);
+        generations_.markAll();
+
+        selectBank(bank);
+        enabled_ = enabled;
+    }
+
+    @Override
+    public void reset() {
+        current_bank_ = 0;
+        enabled_ = false;
+    }
+
+    @Override
+    public void clear() {
+        // uninit ram behavior. Needs to be checked especially with open bus
+        for (int i = 0; i < total_size_; i += 8) {
+            data_.putLong(i, -1L);
+        }
+        generations_.markAll();
+    }
+
+    @Override
+    public long checkpoint() {
+        return generations_.checkpoint();
+    }
+
+    @Override
+    public boolean isPageDirtySince(int page, long generation) {
+        return generations_.isPageDirtySince(page, generation);
+    }
+
+    // O(page count), one generation compare per 256 byte page
+    @Override
+    public int getDirtyPagesSince(long generation, long[] dst) {
+        return generations_.getDirtyPagesSince(generation, dst);
+    }
+
+    @Override
+    public int getPageCount() {
+        return generations_.getPageCount();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "off_heap_sram{size=%d bytes, banks=%d, current_bank=%d, enabled=%s, released=%s}",
+                total_size_,
+                bank_count_,
+                current_bank_,
+                enabled_,
+                isReleased()
+        );
+    }
+}
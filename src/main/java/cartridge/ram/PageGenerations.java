@@ -0,0 +1,57 @@
+package cartridge.ram;
+
+import java.util.Arrays;
+
+// Generation each 256 byte page was last written in, shared by the flat RAM backings
+final class PageGenerations {
+
+    private final int page_count_;
+    private final long[] page_generation_;
+    private long generation_;
+
+    PageGenerations(int size_in_bytes) {
+        this.page_count_ = (size_in_bytes + SRAM.DIRTY_PAGE_SIZE - 1) >>> SRAM.DIRTY_PAGE_SHIFT;
+        this.page_generation_ = new long[page_count_];
+        this.generation_ = 1;
+    }
+
+    void mark(int physical_address) {
+        page_generation_[physical_address >>> SRAM.DIRTY_PAGE_SHIFT] = generation_;
+    }
+
+    void markAll() {
+        Arrays.fill(page_generation_, generation_);
+    }
+
+    long checkpoint() {
+        return generation_++;
+    }
+
+    long getGeneration() {
+        return generation_;
+    }
+
+    boolean isPageDirtySince(int page, long generation) {
+        return page_generation_[page] > generation;
+    }
+
+    // O(page count), one generation compare per page
+    int getDirtyPagesSince(long generation, long[] dst) {
+        if (dst == null || dst.length < (page_count_ + 63) >>> 6) { throw new IllegalArgumentException("Bitset too small for " + page_count_ + " pages"); }
+
+        Arrays.fill(dst, 0L);
+
+        int count = 0;
+        for (int page = 0; page < page_count_; page++) {
+            if (page_generation_[page] > generation) {
+                dst[page >>> 6] |= 1L << page;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    int getPageCount() {
+        return page_count_;
+    }
+}
@@ -0,0 +1,27 @@
+package cartridge.ram;
+
+// Where Cartridge.createRam places cartridge RAM without a save file, battery saves are always memory mapped
+public enum RamBacking {
+
+    HEAP,       // SRAM, byte[] on the GC heap, bus reads it directly
+    OFF_HEAP;   // OffHeapSRAM, slot of SramPool.shared(), released on Cartridge.close()
+
+    public static final String PROPERTY = "cartridge.ram";
+
+    // -Dcartridge.ram=off_heap, HEAP if unset
+    public static RamBacking fromSystemProperty() {
+        String value = System.getProperty(PROPERTY);
+
+        if (value == null || value.isBlank()) {
+            return HEAP;
+        }
+
+        for (RamBacking backing : values()) {
+            if (backing.name().equalsIgnoreCase(value.trim().replace('-', '_'))) {
+                return backing;
+            }
+        }
+        throw new IllegalArgumentException("Unknown RAM backing: " + value);
+    }
+
+}
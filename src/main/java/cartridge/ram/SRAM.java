@@ -1,9 +1,19 @@
 package cartridge.ram;
 
+import cartridge.components.BankStatistics;
 import cartridge.constants.CartridgeConstants;
+import cartridge.events.CartridgeEvents;
 import cartridge.interfaces.ExternalMemory;
+import cartridge.interfaces.PageTracked;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class SRAM implements ExternalMemory, PageTracked {
+
+    public static final int DIRTY_PAGE_SHIFT = 8;
+    public static final int DIRTY_PAGE_SIZE = 1 << DIRTY_PAGE_SHIFT;   // 256 bytes
 
-public class SRAM implements ExternalMemory {
     private final byte[] data_;
     private final int total_size_;
     private final int bank_size_;
@@ -12,6 +22,13 @@ public class SRAM implements ExternalMemory {
     private int current_bank_;
     private boolean enabled_;
 
+    private BankStatistics statistics_; // null = off
+
+    // Dirty tracking, 1 bit per page since the last clear and the generation each page was last written in
+    private final int page_count_;
+    private final long[] dirty_pages_;
+    private final PageGenerations generations_;
+
     public SRAM(int size_in_bytes) {
         if (size_in_bytes <= 0) { throw new IllegalArgumentException("SRAM Negative"); }
 
@@ -26,6 +43,10 @@ public class SRAM implements ExternalMemory {
         this.current_bank_ = 0;
         this.enabled_ = false;
 
+        this.page_count_ = (size_in_bytes + DIRTY_PAGE_SIZE - 1) >>> DIRTY_PAGE_SHIFT;
+        this.dirty_pages_ = new long[(page_count_ + 63) >>> 6];
+        this.generations_ = new PageGenerations(size_in_bytes);
+
         // init to 0xFF, uninitialized ram behavior needs verification
         clear();
     }
@@ -33,6 +54,9 @@ public class SRAM implements ExternalMemory {
     @Override
     public int read(int address) {
         if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead();
+            }
             return 0xFF; // open bus
         }
 
@@ -45,12 +69,19 @@ public class SRAM implements ExternalMemory {
             return 0xFF;
         }
 
+        if (statistics_ != null) {
+            statistics_.ramRead(current_bank_);
+        }
+
         return Byte.toUnsignedInt(data_[physical_address]);
     }
 
     @Override
     public void write(int address, int value) {
         if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamWrite();
+            }
             return; // ignore
         }
 
@@ -63,20 +94,71 @@ public class SRAM implements ExternalMemory {
             return; // ignore
         }
 
+        if (statistics_ != null) {
+            statistics_.ramWrite(current_bank_);
+        }
+
         data_[physical_address] = (byte) (value & 0xFF);
+        markDirty(physical_address);
+    }
+
+    @Override
+    public void readBlock(int address, byte[] dst, int offset, int length) {
+        if (!enabled_) {
+            if (statistics_ != null) {
+                statistics_.disabledRamRead(length);
+            }
+            Arrays.fill(dst, offset, offset + length, (byte) 0xFF); // open bus
+            return;
+        }
+
+        int bank_start = current_bank_ * bank_size_;
+
+        while (length > 0) {
+            // 0xA000-0xBFFF => 0x0000-0x1FFF: 8kb mask, wraps like read()
+            int bank_offset = address & 0x1FFF;
+            int span = Math.min(length, 0x2000 - bank_offset);
+            int physical_address = bank_start + bank_offset;
+
+            if (physical_address + span <= total_size_) {
+                if (statistics_ != null) {
+                    statistics_.ramRead(current_bank_, span);
+                }
+                System.arraycopy(data_, physical_address, dst, offset, span);
+            } else {
+                for (int i = 0; i < span; i++) {
+                    dst[offset + i] = (byte) read(address + i);
+                }
+            }
+
+            address += span;
+            offset += span;
+            length -= span;
+        }
     }
 
     @Override
     public void selectBank(int bank) {
+        int previous_bank = current_bank_;
+
         if (bank_count_ > 0) {
             current_bank_ = bank % bank_count_;
         } else {
             current_bank_ = 0;
         }
+
+        // called on every MBC RAM access, only actual changes are events
+        if (current_bank_ != previous_bank && CartridgeEvents.isRecording()) {
+            CartridgeEvents.ramBankSelect("SRAM", previous_bank, current_bank_);
+        }
     }
 
     @Override
     public void setEnabled(boolean enabled) {
+        if (enabled != enabled_ && CartridgeEvents.isRecording()) {
+            CartridgeEvents.ramEnable("SRAM", enabled);
+        }
+
         this.enabled_ = enabled;
     }
 
@@ -100,6 +182,11 @@ public class SRAM implements ExternalMemory {
         return total_size_;
     }
 
+    @Override
+    public boolean hasArray() {
+        return true;
+    }
+
     @Override
     public byte[] getData() {
         return data_;
@@ -112,6 +199,7 @@ public class SRAM implements ExternalMemory {
         }
 
         System.arraycopy(data, 0, data_, 0, total_size_);
+        markAllDirty();
     }
 
     @Override
@@ -126,17 +214,123 @@ public class SRAM implements ExternalMemory {
         for (int i = 0; i < total_size_; i++) {
             data_[i] = (byte) 0xFF;
         }
+
+        // back to the uninitialized state, nothing to save
+        Arrays.fill(dirty_pages_, 0L);
+
+        // contents still changed for generation based readers (rewind, fork)
+        generations_.markAll();
+    }
+
+    // bank, enabled, size, data
+    @Override
+    public int getStateSize() {
+        return 6 + total_size_;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.put((byte) current_bank_);
+        buffer.put((byte) (enabled_ ? 1 : 0));
+        buffer.putInt(total_size_);
+        buffer.put(data_, 0, total_size_);
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        int bank = buffer.get() & 0xFF;
+        boolean enabled = buffer.get() != 0;
+        int size = buffer.getInt();
+
+        if (size != total_size_) { throw new IllegalArgumentException("Save state RAM size mismatch: " + size + " != " + total_size_); }
+
+        buffer.get(data_, 0, total_size_);
+        markAllDirty();
+
+        selectBank(bank);
+        enabled_ = enabled;
     }
 
+    // Written since creation / clear / clearDirty (the contents may still equal 0xFF), no scan of the data.
+    // Cheap check before persisting the RAM, loadData / loadState count as writes.
     public boolean isDirty() {
-        for (byte b : data_) {
-            if (b != (byte) 0xFF) {
+        for (long word : dirty_pages_) {
+            if (word != 0) {
                 return true;
             }
         }
         return false;
     }
 
+    public void clearDirty() {
+        Arrays.fill(dirty_pages_, 0L);
+    }
+
+    public boolean isPageDirty(int page) {
+        return (dirty_pages_[page >>> 6] & (1L << page)) != 0;
+    }
+
+    @Override
+    public long checkpoint() {
+        return generations_.checkpoint();
+    }
+
+    public long getGeneration() {
+        return generations_.getGeneration();
+    }
+
+    @Override
+    public boolean isPageDirtySince(int page, long generation) {
+        return generations_.isPageDirtySince(page, generation);
+    }
+
+    // O(page count), one generation compare per 256 byte page (512 for 128 KiB), use isPageDirtySince for single pages
+    @Override
+    public int getDirtyPagesSince(long generation, long[] dst) {
+        return generations_.getDirtyPagesSince(generation, dst);
+    }
+
+    @Override
+    public int getPageCount() {
+        return page_count_;
+    }
+
+    private void markDirty(int physical_address) {
+        int page = physical_address >>> DIRTY_PAGE_SHIFT;
+        dirty_pages_[page >>> 6] |= 1L << page;
+        generations_.mark(physical_address);
+    }
+
+    private void markAllDirty() {
+        for (int page = 0; page < page_count_; page++) {
+            dirty_pages_[page >>> 6] |= 1L << page;
+        }
+        generations_.markAll();
+    }
+
+    @Override
+    public void setStatistics(BankStatistics statistics) {
+        this.statistics_ = statistics;
+    }
+
+    @Override
+    public int readPhysical(int physical_address) {
+        if (physical_address < 0 || physical_address >= total_size_) {
+            return 0xFF;
+        }
+        return Byte.toUnsignedInt(data_[physical_address]);
+    }
+
+    @Override
+    public void writePhysical(int physical_address, int value) {
+        if (physical_address < 0 || physical_address >= total_size_) {
+            return;
+        }
+
+        data_[physical_address] = (byte) (value & 0xFF);
+        markDirty(physical_address);
+    }
+
     public int readBank(int bank, int offset) {
         if (bank < 0 || bank >= bank_count_) {
             return 0xFF;
@@ -171,6 +365,7 @@ public class SRAM implements ExternalMemory {
         }
 
         data_[physical_address] = (byte) (value & 0xFF);
+        markDirty(physical_address);
     }
 
     @Override
@@ -0,0 +1,106 @@
+package cartridge.ram;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+// Off-heap arena for cartridge RAM. Large direct chunks are cut into fixed slots per power of 2 size,
+// released slots are reused by the next cartridge of the same size. Chunks stay reserved for the pool's lifetime.
+public class SramPool {
+
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;   // 4 MiB
+
+    private static final int MIN_SLOT_SHIFT = 13;   // 8 KiB, RamSize.KB_8, smaller sizes get a full slot
+    private static final int MAX_SLOT_SHIFT = 17;   // 128 KiB, RamSize.KB_128
+
+    private static final SramPool SHARED = new SramPool(DEFAULT_CHUNK_SIZE);
+
+    private final int chunk_size_;
+    private final List<ArrayDeque<ByteBuffer>> free_slots_;   // per size class
+
+    private long reserved_bytes_;
+    private long used_bytes_;
+    private int chunk_count_;
+
+    public SramPool(int chunk_size) {
+        if (chunk_size < (1 << MAX_SLOT_SHIFT)) { throw new IllegalArgumentException("Chunk smaller than the largest RAM size"); }
+        if ((chunk_size & (chunk_size - 1)) != 0) { throw new IllegalArgumentException("Chunk size must be power of 2"); }
+
+        this.chunk_size_ = chunk_size;
+        this.free_slots_ = new ArrayList<>(MAX_SLOT_SHIFT - MIN_SLOT_SHIFT + 1);
+
+        for (int shift = MIN_SLOT_SHIFT; shift <= MAX_SLOT_SHIFT; shift++) {
+            free_slots_.add(new ArrayDeque<>());
+        }
+    }
+
+    public static SramPool shared() {
+        return SHARED;
+    }
+
+    // Slot starts as 0xFF like SRAM, release it with OffHeapSRAM.release()
+    public OffHeapSRAM allocate(int size_in_bytes) {
+        return new OffHeapSRAM(this, acquire(size_in_bytes), size_in_bytes);
+    }
+
+    synchronized ByteBuffer acquire(int size_in_bytes) {
+        if (size_in_bytes <= 0) { throw new IllegalArgumentException("SRAM Negative"); }
+
+        // power of 2
+        if ((size_in_bytes & (size_in_bytes - 1)) != 0) { throw new IllegalArgumentException("SRAM size must be power of 2"); }
+
+        int shift = Math.max(MIN_SLOT_SHIFT, Integer.numberOfTrailingZeros(size_in_bytes));
+        if (shift > MAX_SLOT_SHIFT) { throw new IllegalArgumentException("SRAM too large for pool: " + size_in_bytes); }
+
+        ArrayDeque<ByteBuffer> free = free_slots_.get(shift - MIN_SLOT_SHIFT);
+        if (free.isEmpty()) {
+            carve(free, 1 << shift);
+        }
+
+        used_bytes_ += 1 << shift;
+        return free.pop();
+    }
+
+    synchronized void release(ByteBuffer slot) {
+        int shift = Integer.numberOfTrailingZeros(slot.capacity());
+
+        used_bytes_ -= slot.capacity();
+        free_slots_.get(shift - MIN_SLOT_SHIFT).push(slot);
+    }
+
+    // New chunk, every slot of it goes to one size class
+    private void carve(ArrayDeque<ByteBuffer> free, int slot_size) {
+        ByteBuffer chunk = ByteBuffer.allocateDirect(chunk_size_);
+
+        for (int position = 0; position < chunk_size_; position += slot_size) {
+            free.add(chunk.slice(position, slot_size));
+        }
+
+        reserved_bytes_ += chunk_size_;
+        chunk_count_++;
+    }
+
+    public synchronized long getReservedBytes() {
+        return reserved_bytes_;
+    }
+
+    public synchronized long getUsedBytes() {
+        return used_bytes_;
+    }
+
+    public synchronized int getChunkCount() {
+        return chunk_count_;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+                "sram_pool{chunks=%d, reserved=%d bytes, used=%d bytes}",
+                chunk_count_,
+                reserved_bytes_,
+                used_bytes_
+        );
+    }
+
+}
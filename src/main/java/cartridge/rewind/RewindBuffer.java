@@ -0,0 +1,422 @@
+package cartridge.rewind;
+
+import cartridge.interfaces.ExternalMemory;
+import cartridge.interfaces.MemoryBankController;
+import cartridge.ram.SRAM;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Fixed size ring of per-frame XOR deltas (MBC registers + changed RAM bytes) with a full keyframe every N frames.
+// XOR runs work in both directions, so stepping back one frame costs as much as that frame changed.
+public class RewindBuffer {
+
+    private static final int RUN_HEADER_SIZE = 8;           // offset + length
+    private static final int MERGE_GAP = RUN_HEADER_SIZE;   // closer differences share one run
+
+    private final MemoryBankController mbc_;
+    private final ExternalMemory ram_;      // null without RAM
+    private final SRAM sram_;               // dirty page tracking, null for other RAM types
+
+    private final int keyframe_interval_;
+    private final int register_size_;
+    private final int ram_size_;
+
+    // Last captured state
+    private final byte[] shadow_registers_;
+    private final byte[] shadow_ram_;
+    private long shadow_generation_;
+
+    // Scratch, allocated once
+    private final byte[] registers_;
+    private final byte[] live_ram_;         // copy of the RAM when it has no heap array
+    private final byte[] record_;
+    private final ByteBuffer record_buffer_;
+
+    // Arena, one contiguous block per frame: [delta][keyframe], blocks never wrap
+    private final byte[] arena_;
+    private final int max_frames_;
+    private final int[] block_offset_;
+    private final int[] delta_length_;
+    private final int[] keyframe_length_;
+    private int oldest_;
+    private int frame_count_;
+    private long frame_number_;
+
+    public RewindBuffer(MemoryBankController mbc, ExternalMemory ram, int max_frames, int keyframe_interval, int memory_budget) {
+        if (mbc == null) { throw new IllegalArgumentException("MBC null"); }
+        if (max_frames <= 0) { throw new IllegalArgumentException("max_frames must be positive"); }
+        if (keyframe_interval <= 0) { throw new IllegalArgumentException("keyframe_interval must be positive"); }
+
+        this.mbc_ = mbc;
+        this.ram_ = ram;
+        this.sram_ = ram instanceof SRAM sram ? sram : null;
+
+        this.keyframe_interval_ = keyframe_interval;
+        this.register_size_ = mbc.getStateSize() + (ram != null ? 2 : 0);
+        this.ram_size_ = ram != null ? ram.getSize() : 0;
+
+        // worst case: every other byte differs, one run header per MERGE_GAP + 1 bytes
+        int max_delta = 5 + register_size_ + ram_size_ + ((ram_size_ / (MERGE_GAP + 1)) + 1) * RUN_HEADER_SIZE;
+        int max_keyframe = register_size_ + ram_size_;
+        if (memory_budget < max_delta + max_keyframe) { throw new IllegalArgumentException("memory_budget too small, need at least " + (max_delta + max_keyframe) + " bytes"); }
+
+        this.shadow_registers_ = new byte[register_size_];
+        this.shadow_ram_ = new byte[ram_size_];
+
+        this.registers_ = new byte[register_size_];
+        this.live_ram_ = (ram != null && !ram.hasArray()) ? new byte[ram_size_] : null;
+        this.record_ = new byte[max_delta + max_keyframe];
+        this.record_buffer_ = ByteBuffer.wrap(record_);
+
+        this.arena_ = new byte[memory_budget];
+        this.max_frames_ = max_frames;
+        this.block_offset_ = new int[max_frames];
+        this.delta_length_ = new int[max_frames];
+        this.keyframe_length_ = new int[max_frames];
+
+        reset();
+    }
+
+    // Drops all frames, the current state becomes the base
+    public void reset() {
+        readRegisters(shadow_registers_);
+
+        byte[] live = liveRam(0, ram_size_);
+        if (live != null) {
+            System.arraycopy(live, 0, shadow_ram_, 0, ram_size_);
+        }
+        if (sram_ != null) {
+            shadow_generation_ = sram_.checkpoint();
+        }
+
+        oldest_ = 0;
+        frame_count_ = 0;
+        frame_number_ = 0;
+    }
+
+    // Call once per frame
+    public void capture() {
+        record_buffer_.clear();
+
+        // registers, whole block xor'ed if anything changed
+        readRegisters(registers_);
+        boolean registers_changed = !Arrays.equals(registers_, shadow_registers_);
+        record_buffer_.put((byte) (registers_changed ? 1 : 0));
+        if (registers_changed) {
+            for (int i = 0; i < register_size_; i++) {
+                record_buffer_.put((byte) (registers_[i] ^ shadow_registers_[i]));
+                shadow_registers_[i] = registers_[i];
+            }
+        }
+
+        // RAM runs, count patched afterwards
+        int count_position = record_buffer_.position();
+        record_buffer_.putInt(0);
+        int runs = 0;
+
+        if (ram_ != null) {
+            if (sram_ != null) {
+                // only pages written since the last capture can differ
+                for (int page = 0; page < sram_.getPageCount(); page++) {
+                    if (sram_.isPageDirtySince(page, shadow_generation_)) {
+                        int start = page << SRAM.DIRTY_PAGE_SHIFT;
+                        runs += diff(sram_.getData(), start, Math.min(start + SRAM.DIRTY_PAGE_SIZE, ram_size_));
+                    }
+                }
+                shadow_generation_ = sram_.checkpoint();
+            } else {
+                runs += diff(liveRam(0, ram_size_), 0, ram_size_);
+            }
+        }
+        record_buffer_.putInt(count_position, runs);
+
+        int delta_length = record_buffer_.position();
+
+        // keyframe = full copy of the state just captured
+        int keyframe_length = 0;
+        if (frame_number_ % keyframe_interval_ == 0) {
+            record_buffer_.put(shadow_registers_);
+            record_buffer_.put(shadow_ram_);
+            keyframe_length = register_size_ + ram_size_;
+        }
+
+        store(delta_length, keyframe_length);
+        frame_number_++;
+    }
+
+    // Steps back, returns how many frames were actually rewound
+    public int rewind(int frames) {
+        if (frames <= 0 || frame_count_ == 0) {
+            return 0;
+        }
+
+        frames = Math.min(frames, frame_count_);
+
+        // undo anything written since the last capture
+        resync();
+
+        int target = frame_count_ - frames;     // frames kept
+
+        // far jumps: nearest keyframe at or after the target, then step back from there
+        int keyframe = -1;
+        for (int i = target; i < frame_count_; i++) {
+            if (keyframe_length_[index(i)] > 0) {
+                keyframe = i;
+                break;
+            }
+        }
+
+        int steps_from_keyframe = keyframe >= 0 ? keyframe - target + 1 : Integer.MAX_VALUE;
+        if (keyframe >= 0 && (frames - steps_from_keyframe) > keyframe_interval_) {
+            loadKeyframe(index(keyframe));
+            frame_count_ = keyframe + 1;
+        }
+
+        while (frame_count_ > target) {
+            int slot = index(frame_count_ - 1);
+            applyDelta(block_offset_[slot], delta_length_[slot]);
+            frame_count_--;
+        }
+        frame_number_ -= frames;
+
+        if (sram_ != null) {
+            shadow_generation_ = sram_.checkpoint();
+        }
+
+        return frames;
+    }
+
+    public int getFrameCount() {
+        return frame_count_;
+    }
+
+    public int getMaxFrames() {
+        return max_frames_;
+    }
+
+    // Bytes held by deltas and keyframes
+    public int getMemoryUsage() {
+        int used = 0;
+        for (int i = 0; i < frame_count_; i++) {
+            int slot = index(i);
+            used += delta_length_[slot] + keyframe_length_[slot];
+        }
+        return used;
+    }
+
+    public int getMemoryBudget() {
+        return arena_.length;
+    }
+
+    // XOR runs for live vs shadow in [start, end), shadow is updated to live
+    private int diff(byte[] live, int start, int end) {
+        int runs = 0;
+        int position = start;
+
+        while (position < end) {
+            int mismatch = Arrays.mismatch(live, position, end, shadow_ram_, position, end);
+            if (mismatch < 0) {
+                break;
+            }
+
+            int run_start = position + mismatch;
+            int last_difference = run_start;
+            int scan = run_start + 1;
+
+            while (scan < end && scan - last_difference <= MERGE_GAP) {
+                if (live[scan] != shadow_ram_[scan]) {
+                    last_difference = scan;
+                }
+                scan++;
+            }
+
+            int run_end = last_difference + 1;
+            record_buffer_.putInt(run_start);
+            record_buffer_.putInt(run_end - run_start);
+            for (int i = run_start; i < run_end; i++) {
+                record_buffer_.put((byte) (live[i] ^ shadow_ram_[i]));
+                shadow_ram_[i] = live[i];
+            }
+
+            runs++;
+            position = run_end;
+        }
+
+        return runs;
+    }
+
+    // XOR is its own inverse, applying the delta of frame n turns state n into n - 1
+    private void applyDelta(int offset, int length) {
+        ByteBuffer delta = ByteBuffer.wrap(arena_, offset, length).slice();
+
+        if (delta.get() != 0) {
+            for (int i = 0; i < register_size_; i++) {
+                shadow_registers_[i] ^= delta.get();
+            }
+            writeRegisters(shadow_registers_);
+        }
+
+        int runs = delta.getInt();
+        for (int run = 0; run < runs; run++) {
+            int start = delta.getInt();
+            int run_length = delta.getInt();
+
+            for (int i = start; i < start + run_length; i++) {
+                shadow_ram_[i] ^= delta.get();
+                ram_.writePhysical(i, shadow_ram_[i]);
+            }
+        }
+    }
+
+    private void loadKeyframe(int slot) {
+        int offset = block_offset_[slot] + delta_length_[slot];
+
+        System.arraycopy(arena_, offset, shadow_registers_, 0, register_size_);
+        System.arraycopy(arena_, offset + register_size_, shadow_ram_, 0, ram_size_);
+
+        writeRegisters(shadow_registers_);
+        syncRam(0, ram_size_);
+    }
+
+    // Live state back to the last capture
+    private void resync() {
+        readRegisters(registers_);
+        if (!Arrays.equals(registers_, shadow_registers_)) {
+            writeRegisters(shadow_registers_);
+        }
+
+        if (ram_ == null) {
+            return;
+        }
+
+        if (sram_ != null) {
+            for (int page = 0; page < sram_.getPageCount(); page++) {
+                if (sram_.isPageDirtySince(page, shadow_generation_)) {
+                    int start = page << SRAM.DIRTY_PAGE_SHIFT;
+                    syncRam(start, Math.min(start + SRAM.DIRTY_PAGE_SIZE, ram_size_));
+                }
+            }
+        } else {
+            syncRam(0, ram_size_);
+        }
+    }
+
+    // Writes shadow bytes that differ from the live RAM
+    private void syncRam(int start, int end) {
+        if (ram_ == null) {
+            return;
+        }
+
+        byte[] live = liveRam(start, end);
+        for (int i = start; i < end; i++) {
+            if (live[i] != shadow_ram_[i]) {
+                ram_.writePhysical(i, shadow_ram_[i]);
+            }
+        }
+    }
+
+    private byte[] liveRam(int start, int end) {
+        if (ram_ == null) {
+            return null;
+        }
+        if (ram_.hasArray()) {
+            return ram_.getData();
+        }
+
+        for (int i = start; i < end; i++) {
+            live_ram_[i] = (byte) ram_.readPhysical(i);
+        }
+        return live_ram_;
+    }
+
+    // MBC registers + RAM bank / enable
+    private void readRegisters(byte[] dst) {
+        ByteBuffer buffer = ByteBuffer.wrap(dst);
+        mbc_.saveState(buffer);
+        if (ram_ != null) {
+            buffer.put((byte) ram_.getCurrentBank());
+            buffer.put((byte) (ram_.isEnabled() ? 1 : 0));
+        }
+    }
+
+    private void writeRegisters(byte[] src) {
+        ByteBuffer buffer = ByteBuffer.wrap(src);
+        mbc_.loadState(buffer);
+        if (ram_ != null) {
+            ram_.selectBank(buffer.get() & 0xFF);
+            ram_.setEnabled(buffer.get() != 0);
+        }
+    }
+
+    // Appends the record as a new block, evicting the oldest frames until it fits
+    private void store(int delta_length, int keyframe_length) {
+        int length = delta_length + keyframe_length;
+        int offset;
+
+        while (true) {
+            if (frame_count_ == max_frames_) {
+                evictOldest();
+                continue;
+            }
+
+            if (frame_count_ == 0) {
+                oldest_ = 0;
+                offset = 0;
+                break;
+            }
+
+            int tail = block_offset_[oldest_];
+            int newest = index(frame_count_ - 1);
+            int head = block_offset_[newest] + delta_length_[newest] + keyframe_length_[newest];
+
+            if (block_offset_[newest] >= tail) {
+                // blocks between tail and head, free space at the end and before tail
+                if (arena_.length - head >= length) {
+                    offset = head;
+                    break;
+                }
+                if (tail >= length) {
+                    offset = 0;
+                    break;
+                }
+            } else if (tail - head >= length) {
+                // wrapped, free space between head and tail
+                offset = head;
+                break;
+            }
+
+            evictOldest();
+        }
+
+        System.arraycopy(record_, 0, arena_, offset, length);
+
+        int slot = index(frame_count_);
+        block_offset_[slot] = offset;
+        delta_length_[slot] = delta_length;
+        keyframe_length_[slot] = keyframe_length;
+        frame_count_++;
+    }
+
+    private void evictOldest() {
+        oldest_ = (oldest_ + 1) % max_frames_;
+        frame_count_--;
+    }
+
+    private int index(int frame) {
+        return (oldest_ + frame) % max_frames_;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "rewind{frames=%d/%d, keyframe_interval=%d, memory=%d/%d bytes}",
+                frame_count_,
+                max_frames_,
+                keyframe_interval_,
+                getMemoryUsage(),
+                arena_.length
+        );
+    }
+
+}
@@ -0,0 +1,357 @@
+package cartridge.rom;
+
+import cartridge.constants.CartridgeConstants;
+import cartridge.exceptions.InvalidCartridgeException;
+import cartridge.interfaces.ReadOnlyMemory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// ROM decompressed bank by bank on first access from a gzip / zip stream.
+// Deflate streams have no random access, the stream is only read as far as the highest bank touched so far.
+// Banks the stream passed are kept recompressed on their own, a later miss inflates 16 KiB instead of the prefix.
+// At most max_resident_banks are kept decompressed (CLOCK eviction), reads of resident banks take no lock.
+public class CompressedROM implements ReadOnlyMemory {
+
+    public static final int DEFAULT_MAX_RESIDENT_BANKS = 16;    // 256 KiB
+
+    private static final int BANK_SHIFT = 14;
+    private static final int BANK_MASK = (1 << BANK_SHIFT) - 1;
+
+    // final field, a thread that sees the holder sees the inflated bytes
+    private static final class Bank {
+        private final byte[] data_;
+
+        Bank(byte[] data) {
+            this.data_ = data;
+        }
+    }
+
+    private final int total_size_;
+    private final int bank_size_;
+    private final int bank_count_;
+    private final int max_resident_banks_;
+
+    private final Bank[] resident_;         // bank -> decompressed, null if not resident
+    private final boolean[] referenced_;    // CLOCK bit, set by readers without the lock
+    private final byte[][] packed_;         // bank -> own deflate stream, null until the stream passed it
+
+    // guarded by this
+    private InputStream source_;            // null once every bank was read
+    private int frontier_;                  // banks read from the source
+    private final int[] slots_;             // resident banks in CLOCK order
+    private int resident_count_;
+    private int hand_;
+    private final Inflater inflater_;
+    private final Deflater deflater_;
+    private long misses_;
+    private long evictions_;
+
+    // source = decompressed stream positioned at the image, closed once the last bank was read
+    public CompressedROM(InputStream source, int size, int max_resident_banks) {
+        if (source == null) { throw new IllegalArgumentException("Source null"); }
+        if (max_resident_banks <= 0) { throw new IllegalArgumentException("max_resident_banks must be positive"); }
+
+        this.bank_size_ = CartridgeConstants.ROM_BANK_SIZE;
+
+        // multiple of bank size
+        if (size % bank_size_ != 0) { throw new IllegalArgumentException( "ROM size must be multiple of " + bank_size_); }
+
+        // min 2 banks = 32KB
+        if (size < CartridgeConstants.MIN_ROM_SIZE) { throw new IllegalArgumentException("Minimum Rom Size: " + CartridgeConstants.MIN_ROM_SIZE); }
+
+        this.total_size_ = size;
+        this.bank_count_ = size / bank_size_;
+        this.max_resident_banks_ = Math.min(max_resident_banks, bank_count_);
+
+        this.resident_ = new Bank[bank_count_];
+        this.referenced_ = new boolean[bank_count_];
+        this.packed_ = new byte[bank_count_][];
+
+        this.source_ = source;
+        this.frontier_ = 0;
+        this.slots_ = new int[max_resident_banks_];
+        this.inflater_ = new Inflater(true);
+        this.deflater_ = new Deflater(Deflater.BEST_SPEED, true);
+    }
+
+    // Hot path, one array load and one store on a resident bank
+    private byte[] bank(int bank) {
+        Bank resident = resident_[bank];
+        referenced_[bank] = true;
+        return resident != null ? resident.data_ : load(bank);
+    }
+
+    private synchronized byte[] load(int bank) {
+        Bank resident = resident_[bank];
+        if (resident != null) {
+            return resident.data_;  // loaded by another thread
+        }
+
+        misses_++;
+
+        byte[] data;
+        try {
+            data = bank < frontier_ ? inflate(packed_[bank]) : advanceTo(bank);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Compressed ROM could not be read", e);
+        }
+
+        admit(bank, data);
+        return data;
+    }
+
+    // Reads the source up to bank, passed banks are only kept packed
+    private byte[] advanceTo(int bank) throws IOException {
+        byte[] data = null;
+
+        while (frontier_ <= bank) {
+            data = source_.readNBytes(bank_size_);
+            if (data.length != bank_size_) { throw new InvalidCartridgeException("Compressed ROM truncated at bank " + frontier_); }
+
+            packed_[frontier_] = deflate(data);
+            frontier_++;
+        }
+
+        if (frontier_ == bank_count_) {
+            source_.close();
+            source_ = null;
+        }
+
+        return data;
+    }
+
+    private byte[] deflate(byte[] data) {
+        deflater_.reset();
+        deflater_.setInput(data);
+        deflater_.finish();
+
+        // incompressible banks grow by a few bytes per 16 KiB block
+        byte[] buffer = new byte[bank_size_ + 64];
+        int length = 0;
+        while (!deflater_.finished()) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length += deflater_.deflate(buffer, length, buffer.length - length);
+        }
+
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private byte[] inflate(byte[] packed) throws IOException {
+        inflater_.reset();
+        inflater_.setInput(packed);
+
+        byte[] data = new byte[bank_size_];
+        try {
+            int length = 0;
+            while (length < bank_size_ && !inflater_.finished()) {
+                length += inflater_.inflate(data, length, bank_size_ - length);
+            }
+            if (length != bank_size_) { throw new IOException("Packed bank corrupt"); }
+        } catch (DataFormatException e) {
+            throw new IOException("Packed bank corrupt", e);
+        }
+
+        return data;
+    }
+
+    // CLOCK, a bank read since the hand last passed gets a second chance
+    private void admit(int bank, byte[] data) {
+        if (resident_count_ < max_resident_banks_) {
+            slots_[resident_count_++] = bank;
+        } else {
+            while (true) {
+                int candidate = slots_[hand_];
+                if (!referenced_[candidate]) {
+                    // readers holding the old array keep valid bytes, arrays are never reused
+                    resident_[candidate] = null;
+                    evictions_++;
+                    slots_[hand_] = bank;
+                    hand_ = (hand_ + 1) % max_resident_banks_;
+                    break;
+                }
+                referenced_[candidate] = false;
+                hand_ = (hand_ + 1) % max_resident_banks_;
+            }
+        }
+
+        referenced_[bank] = true;
+        resident_[bank] = new Bank(data);
+    }
+
+    public int read(int address) {
+        if (address < 0 || address >= total_size_) {
+            return 0xFF; // Open bus, same as ROM
+        }
+        return Byte.toUnsignedInt(bank(address >>> BANK_SHIFT)[address & BANK_MASK]);
+    }
+
+    public int readBank(int bank, int offset) {
+        if (!isValidBank(bank)) {
+            return 0xFF;
+        }
+
+        if (offset < 0 || offset >= bank_size_) {
+            return 0xFF;
+        }
+
+        return Byte.toUnsignedInt(bank(bank)[offset]);
+    }
+
+    public int readByte(int physical_address) {
+        return read(physical_address);
+    }
+
+    public int translateAddress(int bank, int offset) {
+        if (!isValidBank(bank) || offset < 0 || offset >= bank_size_) {
+            return -1;
+        }
+        return (bank * bank_size_) + offset;
+    }
+
+    public int getBankStartAddress(int bank) {
+        if (!isValidBank(bank)) {
+            return -1;
+        }
+        return bank * bank_size_;
+    }
+
+    public boolean isValidBank(int bank) {
+        return bank >= 0 && bank < bank_count_;
+    }
+
+    public boolean isValidAddress(int address) {
+        return address >= 0 && address < total_size_;
+    }
+
+    public int getSize() {
+        return total_size_;
+    }
+
+    public int getBankCount() {
+        return bank_count_;
+    }
+
+    public int getBankSize() {
+        return bank_size_;
+    }
+
+    public boolean hasArray() {
+        return false;
+    }
+
+    public byte[] getData() {
+        return null; // no heap array
+    }
+
+    // banks may be evicted, read through readByte
+    public byte[] getBankArray(int bank) {
+        return null;
+    }
+
+    public int getBankArrayOffset(int bank) {
+        return -1;
+    }
+
+    public byte[] copyRegion(int start, int length) {
+        if (start < 0 || start + length > total_size_) {
+            throw new IllegalArgumentException( "Invalid region");
+        }
+
+        byte[] region = new byte[length];
+        readBlock(start, region, 0, length);
+        return region;
+    }
+
+    public int getBankForAddress(int physical_address) {
+        if (!isValidAddress(physical_address)) {
+            return -1;
+        }
+        return physical_address / bank_size_;
+    }
+
+    public int getOffsetInBank(int physical_address) {
+        if (!isValidAddress(physical_address)) {
+            return -1;
+        }
+        return physical_address % bank_size_;
+    }
+
+    public byte[] readBytes(int start_address, int length) {
+        byte[] result = new byte[length];
+        readBlock(start_address, result, 0, length);
+        return result;
+    }
+
+    public void readBlock(int physical_address, byte[] dst, int offset, int length) {
+        if (physical_address < 0 || physical_address + length > total_size_) {
+            // partially out of range, open bus per byte
+            for (int i = 0; i < length; i++) {
+                dst[offset + i] = (byte) read(physical_address + i);
+            }
+            return;
+        }
+
+        // one copy per bank
+        while (length > 0) {
+            int bank_offset = physical_address & BANK_MASK;
+            int span = Math.min(length, bank_size_ - bank_offset);
+
+            System.arraycopy(bank(physical_address >>> BANK_SHIFT), bank_offset, dst, offset, span);
+
+            physical_address += span;
+            offset += span;
+            length -= span;
+        }
+    }
+
+    // 16 bit
+    public int readWord(int address) {
+        int low = read(address);
+        int high = read(address + 1);
+        return (high << 8) | low;
+    }
+
+    public synchronized int getResidentBanks() {
+        return resident_count_;
+    }
+
+    // Banks read from the compressed source so far
+    public synchronized int getDecodedBanks() {
+        return frontier_;
+    }
+
+    public synchronized long getMisses() {
+        return misses_;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions_;
+    }
+
+    public int getMaxResidentBanks() {
+        return max_resident_banks_;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+                "compressed_rom{size=%d bytes, banks=%d, decoded=%d, resident=%d/%d, misses=%d, evictions=%d}",
+                total_size_,
+                bank_count_,
+                frontier_,
+                resident_count_,
+                max_resident_banks_,
+                misses_,
+                evictions_
+        );
+    }
+
+}
@@ -0,0 +1,511 @@
+package cartridge.rom;
+
+import cartridge.constants.CartridgeConstants;
+import cartridge.exceptions.InvalidCartridgeException;
+import cartridge.interfaces.ReadOnlyMemory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+// IPS / BPS patch applied as an overlay, the base image is shared and never written.
+// Only banks the patch changes are copied, every other bank still reads the base array.
+// Bank resolution is the same two table loads for patched and unpatched banks, MBCs and the bus resolve them
+// once per bank switch through getBankArray, so a read is one array load like a plain ROM.
+public class PatchedROM implements ReadOnlyMemory {
+
+    private static final int BANK_SHIFT = 14;
+    private static final int BANK_MASK = (1 << BANK_SHIFT) - 1;
+
+    private static final byte[] IPS_MAGIC = "PATCH".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BPS_MAGIC = "BPS1".getBytes(StandardCharsets.US_ASCII);
+    private static final int IPS_EOF = 0x454F46;    // "EOF"
+
+    private static final int CRC_CHUNK_SIZE = 64 * 1024;
+
+    private final ReadOnlyMemory base_;
+    private final int total_size_;
+    private final int bank_size_;
+    private final int bank_count_;
+
+    // bank -> array holding it and the bank start in that array
+    // base array slice or private copy at 0, null only for unpatched banks of a base without array
+    private final byte[][] banks_;
+    private final int[] bank_bases_;
+    private final boolean[] patched_;
+    private int patched_count_;
+
+    // size = patched image size, rounded up to whole banks
+    private PatchedROM(ReadOnlyMemory base, int size) {
+        if (base == null) { throw new IllegalArgumentException("Base ROM null"); }
+
+        this.bank_size_ = CartridgeConstants.ROM_BANK_SIZE;
+
+        // min 2 banks = 32KB
+        if (size < CartridgeConstants.MIN_ROM_SIZE) { throw new InvalidCartridgeException("Patched ROM too small: " + size); }
+
+        this.base_ = base;
+        this.bank_count_ = (size + bank_size_ - 1) / bank_size_;
+        this.total_size_ = bank_count_ * bank_size_;
+
+        this.banks_ = new byte[bank_count_][];
+        this.bank_bases_ = new int[bank_count_];
+        this.patched_ = new boolean[bank_count_];
+
+        byte[] base_data = base.hasArray() ? base.getData() : null;
+
+        for (int bank = 0; bank < bank_count_; bank++) {
+            if (bank >= base.getBankCount()) {
+                // past the base image, zero filled like IPS / BPS tools
+                banks_[bank] = new byte[bank_size_];
+                patched_[bank] = true;
+                patched_count_++;
+            } else if (base_data != null) {
+                banks_[bank] = base_data;
+                bank_bases_[bank] = bank * bank_size_;
+            }
+        }
+    }
+
+    public static boolean isPatch(byte[] patch) {
+        return startsWith(patch, IPS_MAGIC) || startsWith(patch, BPS_MAGIC);
+    }
+
+    // Format from the magic, IPS or BPS
+    public static PatchedROM apply(ReadOnlyMemory base, byte[] patch) {
+        if (patch == null) { throw new IllegalArgumentException("Patch null"); }
+
+        if (startsWith(patch, IPS_MAGIC)) {
+            return applyIps(base, patch);
+        }
+        if (startsWith(patch, BPS_MAGIC)) {
+            return applyBps(base, patch);
+        }
+
+        throw new InvalidCartridgeException("Unknown patch format");
+    }
+
+    // IPS: records of (offset, data) or (offset, run), optional truncation after EOF
+    public static PatchedROM applyIps(ReadOnlyMemory base, byte[] patch) {
+        if (base == null) { throw new IllegalArgumentException("Base ROM null"); }
+        if (!startsWith(patch, IPS_MAGIC)) { throw new InvalidCartridgeException("Not an IPS patch"); }
+
+        // first pass only sizes the image, records may extend it
+        long size = base.getSize();
+        PatchReader reader = new PatchReader(patch, IPS_MAGIC.length);
+        while (true) {
+            int offset = reader.u24();
+            if (offset == IPS_EOF) {
+                if (reader.remaining() >= 3) {
+                    size = reader.u24(); // truncation extension
+                }
+                break;
+            }
+
+            int length = reader.u16();
+            if (length == 0) {
+                length = reader.u16();
+                reader.skip(1);
+            } else {
+                reader.skip(length);
+            }
+            size = Math.max(size, (long) offset + length);
+        }
+
+        PatchedROM rom = new PatchedROM(base, checkSize(size, Integer.MAX_VALUE));
+        int end = (int) size;   // records past a truncation are dropped
+
+        reader = new PatchReader(patch, IPS_MAGIC.length);
+        while (true) {
+            int offset = reader.u24();
+            if (offset == IPS_EOF) {
+                break;
+            }
+
+            int length = reader.u16();
+            if (length == 0) {
+                // RLE record
+                int run = reader.u16();
+                int value = reader.u8();
+                for (int i = 0; i < run && offset + i < end; i++) {
+                    rom.patch(offset + i, value);
+                }
+            } else {
+                for (int i = 0; i < length; i++) {
+                    int value = reader.u8();
+                    if (offset + i < end) {
+                        rom.patch(offset + i, value);
+                    }
+                }
+            }
+        }
+
+        return rom;
+    }
+
+    // BPS: target built from source / patch / target copies, CRC32 of source, target and patch in the footer
+    public static PatchedROM applyBps(ReadOnlyMemory base, byte[] patch) {
+        if (base == null) { throw new IllegalArgumentException("Base ROM null"); }
+        if (!startsWith(patch, BPS_MAGIC)) { throw new InvalidCartridgeException("Not a BPS patch"); }
+        if (patch.length < BPS_MAGIC.length + 3 + 12) { throw new InvalidCartridgeException("BPS patch truncated"); }
+
+        int footer = patch.length - 12;
+        long source_crc = readCrc(patch, footer);
+        long target_crc = readCrc(patch, footer + 4);
+        long patch_crc = readCrc(patch, footer + 8);
+
+        CRC32 crc = new CRC32();
+        crc.update(patch, 0, footer + 8);
+        if (crc.getValue() != patch_crc) { throw new InvalidCartridgeException("BPS patch checksum invalid"); }
+
+        PatchReader reader = new PatchReader(patch, BPS_MAGIC.length);
+        long source_size = reader.number();
+        long target_size = reader.number();
+        reader.skip(checkSize(reader.number(), patch.length)); // metadata
+
+        if (source_size != base.getSize() || crc(base, base.getSize()) != source_crc) {
+            throw new InvalidCartridgeException("BPS patch made for a different ROM");
+        }
+
+        PatchedROM rom = new PatchedROM(base, checkSize(target_size, Integer.MAX_VALUE));
+
+        int output = 0;
+        int source_relative = 0;
+        int target_relative = 0;
+
+        while (reader.position() < footer) {
+            long action = reader.number();
+            int length = checkSize((action >>> 2) + 1, target_size - output);
+
+            switch ((int) (action & 3)) {
+                case 0 -> {
+                    // SourceRead, same bytes at the same offset, nothing to copy
+                    if (output + length > source_size) { throw new InvalidCartridgeException("BPS source read out of range"); }
+                    output += length;
+                }
+                case 1 -> {
+                    // TargetRead, bytes from the patch
+                    for (int i = 0; i < length; i++) {
+                        rom.patch(output++, reader.u8());
+                    }
+                }
+                case 2 -> {
+                    // SourceCopy, signed relative offset into the source
+                    source_relative += reader.offset();
+                    if (source_relative < 0 || source_relative + length > source_size) { throw new InvalidCartridgeException("BPS source copy out of range"); }
+                    for (int i = 0; i < length; i++) {
+                        rom.patch(output++, base.read(source_relative++));
+                    }
+                }
+                default -> {
+                    // TargetCopy, may overlap the bytes it writes (run length)
+                    target_relative += reader.offset();
+                    if (target_relative < 0 || target_relative >= output) { throw new InvalidCartridgeException("BPS target copy out of range"); }
+                    for (int i = 0; i < length; i++) {
+                        rom.patch(output++, rom.read(target_relative++));
+                    }
+                }
+            }
+        }
+
+        if (output != target_size) { throw new InvalidCartridgeException("BPS patch truncated"); }
+        if (crc(rom, (int) target_size) != target_crc) { throw new InvalidCartridgeException("BPS target checksum invalid"); }
+
+        return rom;
+    }
+
+    // Copies the bank on its first change, writes of the current value copy nothing
+    private void patch(int address, int value) {
+        if (address < 0 || address >= total_size_) { throw new InvalidCartridgeException("Patch write out of range: 0x" + Integer.toHexString(address)); }
+
+        int bank = address >>> BANK_SHIFT;
+
+        if (!patched_[bank]) {
+            if (read(address) == (value & 0xFF)) {
+                return;
+            }
+
+            byte[] copy = new byte[bank_size_];
+            base_.readBlock(bank * bank_size_, copy, 0, bank_size_);
+
+            banks_[bank] = copy;
+            bank_bases_[bank] = 0;
+            patched_[bank] = true;
+            patched_count_++;
+        }
+
+        banks_[bank][address & BANK_MASK] = (byte) value;
+    }
+
+    // Hot path, table loads only for patched and unpatched banks alike
+    private int readPhysical(int bank, int offset) {
+        byte[] data = banks_[bank];
+        if (data == null) {
+            return base_.readBank(bank, offset); // base without array
+        }
+        return Byte.toUnsignedInt(data[bank_bases_[bank] + offset]);
+    }
+
+    public int read(int address) {
+        if (address < 0 || address >= total_size_) {
+            return 0xFF; // Open bus, same as ROM
+        }
+        return readPhysical(address >>> BANK_SHIFT, address & BANK_MASK);
+    }
+
+    public int readBank(int bank, int offset) {
+        if (!isValidBank(bank)) {
+            return 0xFF;
+        }
+
+        if (offset < 0 || offset >= bank_size_) {
+            return 0xFF;
+        }
+
+        return readPhysical(bank, offset);
+    }
+
+    public int readByte(int physical_address) {
+        return read(physical_address);
+    }
+
+    public int translateAddress(int bank, int offset) {
+        if (!isValidBank(bank) || offset < 0 || offset >= bank_size_) {
+            return -1;
+        }
+        return (bank * bank_size_) + offset;
+    }
+
+    public int getBankStartAddress(int bank) {
+        if (!isValidBank(bank)) {
+            return -1;
+        }
+        return bank * bank_size_;
+    }
+
+    public boolean isValidBank(int bank) {
+        return bank >= 0 && bank < bank_count_;
+    }
+
+    public boolean isValidAddress(int address) {
+        return address >= 0 && address < total_size_;
+    }
+
+    public int getSize() {
+        return total_size_;
+    }
+
+    public int getBankCount() {
+        return bank_count_;
+    }
+
+    public int getBankSize() {
+        return bank_size_;
+    }
+
+    // no single array, banks live in the base image and in private copies, see getBankArray
+    public boolean hasArray() {
+        return false;
+    }
+
+    public byte[] getData() {
+        return null; // no heap array
+    }
+
+    // base array or private copy, null for unpatched banks of a base without array
+    public byte[] getBankArray(int bank) {
+        return isValidBank(bank) ? banks_[bank] : null;
+    }
+
+    public int getBankArrayOffset(int bank) {
+        return isValidBank(bank) && banks_[bank] != null ? bank_bases_[bank] : -1;
+    }
+
+    public byte[] copyRegion(int start, int length) {
+        if (start < 0 || start + length > total_size_) {
+            throw new IllegalArgumentException( "Invalid region");
+        }
+
+        byte[] region = new byte[length];
+        readBlock(start, region, 0, length);
+        return region;
+    }
+
+    public int getBankForAddress(int physical_address) {
+        if (!isValidAddress(physical_address)) {
+            return -1;
+        }
+        return physical_address / bank_size_;
+    }
+
+    public int getOffsetInBank(int physical_address) {
+        if (!isValidAddress(physical_address)) {
+            return -1;
+        }
+        return physical_address % bank_size_;
+    }
+
+    public byte[] readBytes(int start_address, int length) {
+        byte[] result = new byte[length];
+        readBlock(start_address, result, 0, length);
+        return result;
+    }
+
+    public void readBlock(int physical_address, byte[] dst, int offset, int length) {
+        if (physical_address < 0 || physical_address + length > total_size_) {
+            // partially out of range, open bus per byte
+            for (int i = 0; i < length; i++) {
+                dst[offset + i] = (byte) read(physical_address + i);
+            }
+            return;
+        }
+
+        // one copy per bank
+        while (length > 0) {
+            int bank = physical_address >>> BANK_SHIFT;
+            int bank_offset = physical_address & BANK_MASK;
+            int span = Math.min(length, bank_size_ - bank_offset);
+
+            byte[] data = banks_[bank];
+            if (data != null) {
+                System.arraycopy(data, bank_bases_[bank] + bank_offset, dst, offset, span);
+            } else {
+                base_.readBlock(physical_address, dst, offset, span);
+            }
+
+            physical_address += span;
+            offset += span;
+            length -= span;
+        }
+    }
+
+    // 16 bit
+    public int readWord(int address) {
+        int low = read(address);
+        int high = read(address + 1);
+        return (high << 8) | low;
+    }
+
+    public ReadOnlyMemory getBase() {
+        return base_;
+    }
+
+    public boolean isPatched(int bank) {
+        return isValidBank(bank) && patched_[bank];
+    }
+
+    public int getPatchedBanks() {
+        return patched_count_;
+    }
+
+    // Heap bytes owned by this overlay, the base is not counted
+    public long getPrivateBytes() {
+        return (long) patched_count_ * bank_size_;
+    }
+
+    private static boolean startsWith(byte[] patch, byte[] magic) {
+        return patch != null && patch.length >= magic.length && Arrays.equals(patch, 0, magic.length, magic, 0, magic.length);
+    }
+
+    private static long readCrc(byte[] patch, int position) {
+        return Byte.toUnsignedLong(patch[position])
+                | Byte.toUnsignedLong(patch[position + 1]) << 8
+                | Byte.toUnsignedLong(patch[position + 2]) << 16
+                | Byte.toUnsignedLong(patch[position + 3]) << 24;
+    }
+
+    // bounded chunks, works for any ReadOnlyMemory
+    private static long crc(ReadOnlyMemory rom, int length) {
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[CRC_CHUNK_SIZE];
+
+        for (int position = 0; position < length; position += CRC_CHUNK_SIZE) {
+            int span = Math.min(CRC_CHUNK_SIZE, length - position);
+            rom.readBlock(position, chunk, 0, span);
+            crc.update(chunk, 0, span);
+        }
+
+        return crc.getValue();
+    }
+
+    private static int checkSize(long size, long limit) {
+        if (size < 0 || size > limit) { throw new InvalidCartridgeException("Patch corrupt, size out of range: " + size); }
+        return (int) size;
+    }
+
+    // Sequential reader over the patch bytes, truncation is a corrupt patch
+    private static final class PatchReader {
+        private final byte[] patch_;
+        private int position_;
+
+        PatchReader(byte[] patch, int position) {
+            this.patch_ = patch;
+            this.position_ = position;
+        }
+
+        int u8() {
+            if (position_ >= patch_.length) { throw new InvalidCartridgeException("Patch truncated"); }
+            return Byte.toUnsignedInt(patch_[position_++]);
+        }
+
+        // big endian, IPS
+        int u16() {
+            return (u8() << 8) | u8();
+        }
+
+        int u24() {
+            return (u8() << 16) | (u8() << 8) | u8();
+        }
+
+        // BPS variable length number, every continuation adds one to skip redundant encodings
+        long number() {
+            long data = 0;
+            long shift = 1;
+
+            while (true) {
+                int x = u8();
+                data += (x & 0x7F) * shift;
+                if ((x & 0x80) != 0) {
+                    return data;
+                }
+                shift <<= 7;
+                data += shift;
+
+                if (shift > (1L << 42)) { throw new InvalidCartridgeException("Patch number too large"); }
+            }
+        }
+
+        // BPS relative offset, sign in bit 0
+        int offset() {
+            long data = number();
+            long magnitude = data >>> 1;
+            if (magnitude > Integer.MAX_VALUE) { throw new InvalidCartridgeException("Patch offset too large"); }
+            return (data & 1) != 0 ? -(int) magnitude : (int) magnitude;
+        }
+
+        void skip(int count) {
+            if (count > patch_.length - position_) { throw new InvalidCartridgeException("Patch truncated"); }
+            position_ += count;
+        }
+
+        int remaining() {
+            return patch_.length - position_;
+        }
+
+        int position() {
+            return position_;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "patched_rom{size=%d bytes, banks=%d, patched=%d, base=%s}",
+                total_size_,
+                bank_count_,
+                patched_count_,
+                base_.toString()
+        );
+    }
+
+}
@@ -84,10 +84,22 @@ public class ROM implements ReadOnlyMemory {
         return bank_size_;
     }
 
+    public boolean hasArray() {
+        return true;
+    }
+
     public byte[] getData() {
         return data_;
     }
 
+    public byte[] getBankArray(int bank) {
+        return isValidBank(bank) ? data_ : null;
+    }
+
+    public int getBankArrayOffset(int bank) {
+        return isValidBank(bank) ? bank * bank_size_ : -1;
+    }
+
     public byte[] copyRegion(int start, int length) {
         if (start < 0 || start + length > total_size_) {
             throw new IllegalArgumentException( "Invalid region");
@@ -114,14 +126,28 @@ public class ROM implements ReadOnlyMemory {
 
     public byte[] readBytes(int start_address, int length) {
         byte[] result = new byte[length];
+        readBlock(start_address, result, 0, length);
+        return result;
+    }
+
+    public void readBlock(int physical_address, byte[] dst, int offset, int length) {
+        if (physical_address >= 0 && physical_address + length <= total_size_) {
+            System.arraycopy(data_, physical_address, dst, offset, length);
+            return;
+        }
+
+        // partially out of range, open bus per byte
         for (int i = 0; i < length; i++) {
-            result[i] = (byte) read(start_address + i);
+            dst[offset + i] = (byte) read(physical_address + i);
         }
-        return result;
     }
 
     // 16 bit
     public int readWord(int address) {
+        if (address >= 0 && address + 1 < total_size_) {
+            return Byte.toUnsignedInt(data_[address]) | (Byte.toUnsignedInt(data_[address + 1]) << 8);
+        }
+
         int low = read(address);
         int high = read(address + 1);
         return (high << 8) | low;
@@ -0,0 +1,272 @@
+package cartridge.rom;
+
+import cartridge.interfaces.ReadOnlyMemory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Process wide ROM images keyed by content hash, every session of the same game shares one read-only copy.
+// Images in use are never evicted, unused ones are kept in LRU order until the idle limits are exceeded.
+public class RomCache {
+
+    public static final long DEFAULT_MAX_IDLE_BYTES = 64L * 1024 * 1024;  // 64 MiB
+    public static final int DEFAULT_MAX_IDLE_IMAGES = 32;
+
+    private static final int HASH_CHUNK_SIZE = 64 * 1024;
+
+    private static final RomCache SHARED = new RomCache(DEFAULT_MAX_IDLE_BYTES, DEFAULT_MAX_IDLE_IMAGES);
+
+    private final long max_idle_bytes_;
+    private final int max_idle_images_;
+
+    private final Map<String, Entry> entries_;           // all cached images
+    private final LinkedHashMap<String, Entry> idle_;    // unreferenced, least recently released first
+
+    private long total_bytes_;
+    private long idle_bytes_;
+    private long hits_;
+    private long misses_;
+    private long evictions_;
+
+    private static final class Entry {
+        private final String key_;
+        private final ROM rom_;
+        private int references_;
+
+        Entry(String key, ROM rom) {
+            this.key_ = key;
+            this.rom_ = rom;
+            this.references_ = 0;
+        }
+    }
+
+    // Returned to the session, closing it drops the reference, the ROM must not be used afterwards
+    public final class Lease implements AutoCloseable {
+        private final Entry entry_;
+        private boolean released_;
+
+        private Lease(Entry entry) {
+            this.entry_ = entry;
+            this.released_ = false;
+        }
+
+        public ReadOnlyMemory getRom() {
+            return entry_.rom_;
+        }
+
+        public String getKey() {
+            return entry_.key_;
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+
+    public RomCache(long max_idle_bytes, int max_idle_images) {
+        if (max_idle_bytes < 0) { throw new IllegalArgumentException("max_idle_bytes Negative"); }
+        if (max_idle_images < 0) { throw new IllegalArgumentException("max_idle_images Negative"); }
+
+        this.max_idle_bytes_ = max_idle_bytes;
+        this.max_idle_images_ = max_idle_images;
+        this.entries_ = new HashMap<>();
+        this.idle_ = new LinkedHashMap<>();
+    }
+
+    public static RomCache shared() {
+        return SHARED;
+    }
+
+    // Hashes the image, an identical cached image is shared, otherwise a private copy is cached
+    public Lease acquire(byte[] rom_data) {
+        if (rom_data == null || rom_data.length == 0) { throw new IllegalArgumentException("ROM data null or empty"); }
+
+        String key = hash(rom_data);   // outside the lock, the expensive part
+
+        // copy, the caller may reuse or modify its buffer
+        return acquire(key, rom_data, true);
+    }
+
+    // Hashes the file while streaming it, a hit never loads the image onto the heap
+    public Lease acquire(Path rom_path) throws IOException {
+        if (rom_path == null) { throw new IllegalArgumentException("rom_path null"); }
+
+        String key = hash(rom_path);
+
+        synchronized (this) {
+            Entry entry = entries_.get(key);
+            if (entry != null) {
+                hits_++;
+                return lease(entry);
+            }
+        }
+
+        // miss, hashed again in case the file changed since the streamed pass
+        byte[] rom_data = Files.readAllBytes(rom_path);
+        if (rom_data.length == 0) { throw new IllegalArgumentException("ROM file empty"); }
+
+        return acquire(hash(rom_data), rom_data, false);
+    }
+
+    private synchronized Lease acquire(String key, byte[] rom_data, boolean copy) {
+        Entry entry = entries_.get(key);
+
+        if (entry != null) {
+            hits_++;
+        } else {
+            misses_++;
+
+            entry = new Entry(key, new ROM(copy ? rom_data.clone() : rom_data));
+            entries_.put(key, entry);
+            total_bytes_ += rom_data.length;
+        }
+
+        return lease(entry);
+    }
+
+    // caller holds the lock
+    private Lease lease(Entry entry) {
+        if (entry.references_++ == 0 && idle_.remove(entry.key_) != null) {
+            idle_bytes_ -= entry.rom_.getSize();
+        }
+
+        return new Lease(entry);
+    }
+
+    private synchronized void release(Lease lease) {
+        if (lease.released_) {
+            return; // closed twice
+        }
+        lease.released_ = true;
+
+        Entry entry = lease.entry_;
+        if (--entry.references_ > 0) {
+            return;
+        }
+
+        idle_.put(entry.key_, entry);
+        idle_bytes_ += entry.rom_.getSize();
+        evictIdle();
+    }
+
+    private void evictIdle() {
+        Iterator<Entry> iterator = idle_.values().iterator();
+
+        while (iterator.hasNext() && (idle_bytes_ > max_idle_bytes_ || idle_.size() > max_idle_images_)) {
+            Entry oldest = iterator.next();
+            iterator.remove();
+
+            entries_.remove(oldest.key_);
+            idle_bytes_ -= oldest.rom_.getSize();
+            total_bytes_ -= oldest.rom_.getSize();
+            evictions_++;
+        }
+    }
+
+    // Drops every unused image, images in use stay
+    public synchronized void trim() {
+        for (Entry entry : idle_.values()) {
+            entries_.remove(entry.key_);
+            total_bytes_ -= entry.rom_.getSize();
+            evictions_++;
+        }
+        idle_.clear();
+        idle_bytes_ = 0;
+    }
+
+    public boolean contains(byte[] rom_data) {
+        String key = hash(rom_data);
+        synchronized (this) {
+            return entries_.containsKey(key);
+        }
+    }
+
+    public synchronized int getReferences(String key) {
+        Entry entry = entries_.get(key);
+        return entry != null ? entry.references_ : 0;
+    }
+
+    public synchronized int getImageCount() {
+        return entries_.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return total_bytes_;
+    }
+
+    public synchronized long getIdleBytes() {
+        return idle_bytes_;
+    }
+
+    public synchronized long getHits() {
+        return hits_;
+    }
+
+    public synchronized long getMisses() {
+        return misses_;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions_;
+    }
+
+    private static String hash(byte[] rom_data) {
+        MessageDigest sha1 = sha1();
+
+        // bounded updates, same as RomIntegrity
+        for (int position = 0; position < rom_data.length; position += HASH_CHUNK_SIZE) {
+            sha1.update(rom_data, position, Math.min(HASH_CHUNK_SIZE, rom_data.length - position));
+        }
+
+        return HexFormat.of().formatHex(sha1.digest());
+    }
+
+    private static String hash(Path rom_path) throws IOException {
+        MessageDigest sha1 = sha1();
+        byte[] chunk = new byte[HASH_CHUNK_SIZE];
+
+        try (InputStream stream = Files.newInputStream(rom_path)) {
+            int read;
+            while ((read = stream.read(chunk)) > 0) {
+                sha1.update(chunk, 0, read);
+            }
+        }
+
+        return HexFormat.of().formatHex(sha1.digest());
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e); // required by every Java platform
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+                "rom_cache{images=%d, total=%d bytes, idle=%d/%d bytes, idle_images=%d/%d, hits=%d, misses=%d, evictions=%d}",
+                entries_.size(),
+                total_bytes_,
+                idle_bytes_,
+                max_idle_bytes_,
+                idle_.size(),
+                max_idle_images_,
+                hits_,
+                misses_,
+                evictions_
+        );
+    }
+
+}
@@ -0,0 +1,315 @@
+package cartridge.util;
+
+import cartridge.constants.CartridgeConstants;
+import cartridge.interfaces.ReadOnlyMemory;
+import cartridge.rom.MappedROM;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.CRC32;
+
+// Global checksum, CRC32 and SHA-1 of a ROM image, stable identity for matching against dump databases
+public class RomIntegrity {
+
+    private static final int CHUNK_SIZE = 64 * 1024;                // streaming step, stays in L2
+    private static final int PARALLEL_THRESHOLD = 1024 * 1024;      // smaller images (or single core) are hashed on the caller thread
+    private static final int MIN_SEGMENT_SIZE = 256 * 1024;
+
+    // 8 bytes as 4 x 16 bit lanes, a lane grows by at most 510 per word, 128 words stay below 0xFFFF
+    private static final long LANE_MASK = 0x00FF00FF00FF00FFL;
+    private static final int WORDS_PER_FOLD = 128;
+
+    private static final long CRC32_POLYNOMIAL = 0xEDB88320L;
+
+    public record Result(int global_checksum, int expected_global_checksum, long crc32, byte[] sha1) {
+
+        public boolean isGlobalChecksumValid() {
+            return global_checksum == expected_global_checksum;
+        }
+
+        public String getCrc32Hex() {
+            return String.format("%08X", crc32);
+        }
+
+        public String getSha1Hex() {
+            return HexFormat.of().withUpperCase().formatHex(sha1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "rom_integrity{global_checksum=0x%04X, expected=0x%04X, crc32=%s, sha1=%s}",
+                    global_checksum,
+                    expected_global_checksum,
+                    getCrc32Hex(),
+                    getSha1Hex()
+            );
+        }
+    }
+
+    // One pass over the image, checksum and CRC32 are split across cores while the caller streams SHA-1
+    public static Result verify(ReadOnlyMemory rom) {
+        if (rom == null) { throw new IllegalArgumentException("ROM null"); }
+        if (rom.getSize() < CartridgeConstants.HEADER_END + 1) { throw new IllegalArgumentException("ROM too small to contain header"); }
+
+        ByteBuffer data = view(rom);
+        int size = data.remaining();
+        MessageDigest sha1 = newSha1();
+
+        int checksum;
+        long crc32;
+
+        if (size < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            // chunk by chunk, all three digests read the chunk while it is in cache
+            CRC32 crc = new CRC32();
+            long sum = 0;
+
+            for (int position = 0; position < size; position += CHUNK_SIZE) {
+                int length = Math.min(CHUNK_SIZE, size - position);
+
+                sum += byteSum(data, position, length);
+                crc.update(data.duplicate().position(position).limit(position + length));
+                sha1.update(data.duplicate().position(position).limit(position + length));
+            }
+
+            checksum = (int) sum;
+            crc32 = crc.getValue();
+        } else {
+            int segments = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), size / MIN_SEGMENT_SIZE));
+            SegmentTask task = new SegmentTask(data, 0, size, (size + segments - 1) / segments);
+            task.fork();
+
+            // bounded updates, one huge update stalls once the digest loop gets recompiled
+            for (int position = 0; position < size; position += CHUNK_SIZE) {
+                sha1.update(data.duplicate().position(position).limit(Math.min(size, position + CHUNK_SIZE)));
+            }
+
+            long[] partial = task.join();
+            checksum = (int) partial[0];
+            crc32 = partial[1];
+        }
+
+        return new Result(finishGlobalChecksum(data, checksum), expectedGlobalChecksum(data), crc32, sha1.digest());
+    }
+
+    // 16 bit sum of every byte except the checksum itself, the boot ROM never checks it
+    public static int computeGlobalChecksum(ReadOnlyMemory rom) {
+        if (rom == null) { throw new IllegalArgumentException("ROM null"); }
+        if (rom.getSize() < CartridgeConstants.HEADER_END + 1) { throw new IllegalArgumentException("ROM too small to contain header"); }
+
+        ByteBuffer data = view(rom);
+        int size = data.remaining();
+
+        long sum;
+        if (size < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            sum = byteSum(data, 0, size);
+        } else {
+            int segments = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), size / MIN_SEGMENT_SIZE));
+            sum = new SumTask(data, 0, size, (size + segments - 1) / segments).invoke();
+        }
+
+        return finishGlobalChecksum(data, (int) sum);
+    }
+
+    public static int computeGlobalChecksum(byte[] rom_data) {
+        if (rom_data == null || rom_data.length < CartridgeConstants.HEADER_END + 1) { throw new IllegalArgumentException("ROM too small to contain header"); }
+
+        ByteBuffer data = ByteBuffer.wrap(rom_data);
+        return finishGlobalChecksum(data, (int) byteSum(data, 0, rom_data.length));
+    }
+
+    private static int finishGlobalChecksum(ByteBuffer data, int sum) {
+        int high = Byte.toUnsignedInt(data.get(CartridgeConstants.GLOBAL_CHECKSUM_HIGH));
+        int low = Byte.toUnsignedInt(data.get(CartridgeConstants.GLOBAL_CHECKSUM_LOW));
+        return (sum - high - low) & 0xFFFF;
+    }
+
+    private static int expectedGlobalChecksum(ByteBuffer data) {
+        return (Byte.toUnsignedInt(data.get(CartridgeConstants.GLOBAL_CHECKSUM_HIGH)) << 8) | Byte.toUnsignedInt(data.get(CartridgeConstants.GLOBAL_CHECKSUM_LOW));
+    }
+
+    // Word at a time: even and odd bytes are added as 16 bit lanes, folded before a lane can overflow
+    static long byteSum(ByteBuffer data, int start, int length) {
+        long sum = 0;
+        int position = start;
+        int end = start + length;
+        int word_end = start + (length & ~7);
+
+        while (position < word_end) {
+            long lanes = 0;
+            int fold_end = Math.min(word_end, position + WORDS_PER_FOLD * 8);
+
+            for (; position < fold_end; position += 8) {
+                long word = data.getLong(position);
+                lanes += (word & LANE_MASK) + ((word >>> 8) & LANE_MASK);
+            }
+
+            sum += (lanes & 0xFFFF) + ((lanes >>> 16) & 0xFFFF) + ((lanes >>> 32) & 0xFFFF) + (lanes >>> 48);
+        }
+
+        for (; position < end; position++) {
+            sum += Byte.toUnsignedInt(data.get(position));
+        }
+
+        return sum;
+    }
+
+    // crc(A + B) from crc(A), crc(B) and |B|, zlib's crc32_combine
+    static long combineCrc32(long crc1, long crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+
+        long[] even = new long[32];
+        long[] odd = new long[32];
+
+        // operator for one zero bit
+        odd[0] = CRC32_POLYNOMIAL;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+
+        gf2MatrixSquare(even, odd);    // 2 zero bits
+        gf2MatrixSquare(odd, even);    // 4 zero bits
+
+        // apply length2 zero bytes to crc1
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(even, crc1);
+            }
+            length2 >>>= 1;
+
+            if (length2 == 0) {
+                break;
+            }
+
+            gf2MatrixSquare(odd, even);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(odd, crc1);
+            }
+            length2 >>>= 1;
+        } while (length2 != 0);
+
+        return crc1 ^ crc2;
+    }
+
+    private static long gf2MatrixTimes(long[] matrix, long vector) {
+        long sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(matrix, matrix[n]);
+        }
+    }
+
+    // Heap and mapped images are read in place, anything else is copied once
+    private static ByteBuffer view(ReadOnlyMemory rom) {
+        if (rom.hasArray()) {
+            return ByteBuffer.wrap(rom.getData(), 0, rom.getSize()).slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (rom instanceof MappedROM mapped) {
+            return mapped.getBuffer().duplicate().clear().slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return ByteBuffer.wrap(rom.readBytes(0, rom.getSize())).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static MessageDigest newSha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e); // required by every Java platform
+        }
+    }
+
+    // {byte sum, crc32} of [start, end)
+    @SuppressWarnings("serial") // fork/join tasks are never serialized
+    private static final class SegmentTask extends RecursiveTask<long[]> {
+
+        private final ByteBuffer data_;
+        private final int start_;
+        private final int end_;
+        private final int segment_size_;
+
+        SegmentTask(ByteBuffer data, int start, int end, int segment_size) {
+            this.data_ = data;
+            this.start_ = start;
+            this.end_ = end;
+            this.segment_size_ = segment_size;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (end_ - start_ <= segment_size_) {
+                CRC32 crc = new CRC32();
+                long sum = 0;
+
+                for (int position = start_; position < end_; position += CHUNK_SIZE) {
+                    int length = Math.min(CHUNK_SIZE, end_ - position);
+                    sum += byteSum(data_, position, length);
+                    crc.update(data_.duplicate().position(position).limit(position + length));
+                }
+                return new long[] { sum, crc.getValue() };
+            }
+
+            int middle = start_ + (((end_ - start_) >>> 1) & ~7);
+            SegmentTask left = new SegmentTask(data_, start_, middle, segment_size_);
+            SegmentTask right = new SegmentTask(data_, middle, end_, segment_size_);
+            ForkJoinTask.invokeAll(left, right);
+
+            long[] a = left.join();
+            long[] b = right.join();
+            return new long[] { a[0] + b[0], combineCrc32(a[1], b[1], end_ - middle) };
+        }
+    }
+
+    @SuppressWarnings("serial") // fork/join tasks are never serialized
+    private static final class SumTask extends RecursiveTask<Long> {
+
+        private final ByteBuffer data_;
+        private final int start_;
+        private final int end_;
+        private final int segment_size_;
+
+        SumTask(ByteBuffer data, int start, int end, int segment_size) {
+            this.data_ = data;
+            this.start_ = start;
+            this.end_ = end;
+            this.segment_size_ = segment_size;
+        }
+
+        @Override
+        protected Long compute() {
+            if (end_ - start_ <= segment_size_) {
+                return byteSum(data_, start_, end_ - start_);
+            }
+
+            int middle = start_ + (((end_ - start_) >>> 1) & ~7);
+            SumTask left = new SumTask(data_, start_, middle, segment_size_);
+            SumTask right = new SumTask(data_, middle, end_, segment_size_);
+            ForkJoinTask.invokeAll(left, right);
+
+            return left.join() + right.join();
+        }
+    }
+
+    private RomIntegrity() {
+        throw new AssertionError("No instantiation for Utility classes");
+    }
+
+}
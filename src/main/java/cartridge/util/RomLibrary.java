@@ -0,0 +1,309 @@
+package cartridge.util;
+
+import cartridge.constants.CartridgeConstants;
+import cartridge.header.Header;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Header-only index of a ROM directory tree, files are probed in parallel and re-probed only when size or mtime change
+public class RomLibrary {
+
+    private static final int INDEX_MAGIC = 0x47424C49;  // "GBLI"
+    private static final int INDEX_VERSION = 1;
+
+    private static final int HEADER_LENGTH = CartridgeConstants.HEADER_END - CartridgeConstants.HEADER_START + 1;   // 0x0100-0x014F
+    private static final int PROBE_BATCH = 64;  // files per fork-join leaf
+
+    // header_data = 0x0100-0x014F, null if the file could not be probed
+    public record Entry(String path, long size, long modified_millis, byte[] header_data, Header header, boolean header_checksum_valid) {
+
+        public boolean isValid() {
+            return header != null && header_checksum_valid && header.isNintendoLogoValid();
+        }
+
+        boolean isCurrent(long file_size, long file_modified_millis) {
+            return size == file_size && modified_millis == file_modified_millis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "library_entry{path='%s', size=%d bytes, title='%s', mbc=%s, valid=%s}",
+                    path,
+                    size,
+                    header != null ? header.title() : "",
+                    header != null ? header.cartridge_type().name() : "none",
+                    isValid()
+            );
+        }
+    }
+
+    private final ForkJoinPool pool_;
+    private final Map<String, Entry> entries_;
+
+    private int last_probed_;
+
+    public RomLibrary() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public RomLibrary(ForkJoinPool pool) {
+        if (pool == null) { throw new IllegalArgumentException("Pool null"); }
+
+        this.pool_ = pool;
+        this.entries_ = new ConcurrentHashMap<>();
+        this.last_probed_ = 0;
+    }
+
+    // Walks root for .gb/.gbc files, unchanged entries are kept, new or modified files are probed, missing ones dropped
+    public synchronized int scan(Path root) throws IOException {
+        if (root == null) { throw new IllegalArgumentException("root null"); }
+        if (!Files.isDirectory(root)) { throw new IOException("Library root is not a directory"); }
+
+        List<Path> changed = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        String root_prefix = key(root) + root.getFileSystem().getSeparator();
+
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (!attributes.isRegularFile() || !isRomName(file)) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                // attributes come with the directory listing, no extra stat per file
+                String key = key(file);
+                seen.add(key);
+
+                Entry entry = entries_.get(key);
+                if (entry == null || !entry.isCurrent(attributes.size(), attributes.lastModifiedTime().toMillis())) {
+                    changed.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE; // unreadable directory entry, skip
+            }
+        });
+
+        // only entries below this root can have disappeared
+        entries_.keySet().removeIf(key -> key.startsWith(root_prefix) && !seen.contains(key));
+
+        if (!changed.isEmpty()) {
+            pool_.invoke(new ProbeTask(changed, 0, changed.size()));
+        }
+
+        last_probed_ = changed.size();
+        return last_probed_;
+    }
+
+    // Reads only the header, failures become an entry without header so they are not probed again until the file changes
+    public static Entry probe(Path file) {
+        String key = key(file);
+
+        long size;
+        long modified;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            size = attributes.size();
+            modified = attributes.lastModifiedTime().toMillis();
+        } catch (NoSuchFileException e) {
+            return null; // removed while scanning
+        } catch (IOException e) {
+            return new Entry(key, -1, -1, null, null, false); // no attributes, retried on the next scan
+        }
+
+        if (size < CartridgeConstants.MIN_ROM_SIZE) {
+            return new Entry(key, size, modified, null, null, false);
+        }
+
+        try {
+            byte[] rom_data = RomLoader.readHeaderBytes(file);
+            return createEntry(key, size, modified, Arrays.copyOfRange(rom_data, CartridgeConstants.HEADER_START, rom_data.length));
+
+        } catch (NoSuchFileException e) {
+            return null; // removed while scanning
+        } catch (IOException | RuntimeException e) {
+            // broken image, current until its size or mtime changes
+            return new Entry(key, size, modified, null, null, false);
+        }
+    }
+
+    private static Entry createEntry(String key, long size, long modified, byte[] header_data) {
+        if (header_data == null) {
+            return new Entry(key, size, modified, null, null, false);
+        }
+
+        // Header works on absolute offsets, place the header bytes at 0x0100
+        byte[] rom_data = new byte[CartridgeConstants.HEADER_END + 1];
+        System.arraycopy(header_data, 0, rom_data, CartridgeConstants.HEADER_START, HEADER_LENGTH);
+
+        Header header = Header.parse(rom_data);
+        return new Entry(key, size, modified, header_data, header, header.isHeaderChecksumValid(rom_data));
+    }
+
+    // Replaces the in-memory entries, false if the file is missing or not a library index
+    public synchronized boolean load(Path index_file) throws IOException {
+        if (index_file == null) { throw new IllegalArgumentException("index_file null"); }
+        if (!Files.exists(index_file)) {
+            return false;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index_file)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) {
+                return false; // stale format, full re-scan
+            }
+
+            int count = in.readInt();
+            Map<String, Entry> loaded = new ConcurrentHashMap<>(count);
+
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long modified = in.readLong();
+
+                byte[] header_data = null;
+                if (in.readBoolean()) {
+                    header_data = new byte[HEADER_LENGTH];
+                    in.readFully(header_data);
+                }
+
+                loaded.put(path, createEntry(path, size, modified, header_data));
+            }
+
+            entries_.clear();
+            entries_.putAll(loaded);
+            return true;
+        }
+    }
+
+    // Written next to the target and moved over it, a crash never leaves a half written index
+    public synchronized void save(Path index_file) throws IOException {
+        if (index_file == null) { throw new IllegalArgumentException("index_file null"); }
+
+        Path directory = index_file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, index_file.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(INDEX_MAGIC);
+                out.writeInt(INDEX_VERSION);
+                out.writeInt(entries_.size());
+
+                for (Entry entry : entries_.values()) {
+                    out.writeUTF(entry.path());
+                    out.writeLong(entry.size());
+                    out.writeLong(entry.modified_millis());
+                    out.writeBoolean(entry.header_data() != null);
+                    if (entry.header_data() != null) {
+                        out.write(entry.header_data());
+                    }
+                }
+            }
+
+            Files.move(temp, index_file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public Entry get(Path file) {
+        return entries_.get(key(file));
+    }
+
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries_.values());
+    }
+
+    public List<Entry> getValidEntries() {
+        List<Entry> valid = new ArrayList<>();
+        for (Entry entry : entries_.values()) {
+            if (entry.isValid()) {
+                valid.add(entry);
+            }
+        }
+        return valid;
+    }
+
+    public int size() {
+        return entries_.size();
+    }
+
+    public int getLastProbed() {
+        return last_probed_;
+    }
+
+    public void clear() {
+        entries_.clear();
+    }
+
+    private static boolean isRomName(Path file) {
+        String extension = RomLoader.getFileExtension(file.getFileName().toString());
+        return extension.equals("gb") || extension.equals("gbc");
+    }
+
+    private static String key(Path file) {
+        return file.toAbsolutePath().normalize().toString();
+    }
+
+    // Splits the changed files until a batch is small enough, each leaf probes sequentially
+    @SuppressWarnings("serial") // fork/join tasks are never serialized
+    private final class ProbeTask extends RecursiveAction {
+
+        private final List<Path> files_;
+        private final int start_;
+        private final int end_;
+
+        ProbeTask(List<Path> files, int start, int end) {
+            this.files_ = files;
+            this.start_ = start;
+            this.end_ = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end_ - start_ <= PROBE_BATCH) {
+                for (int i = start_; i < end_; i++) {
+                    Entry entry = probe(files_.get(i));
+                    if (entry != null) {
+                        entries_.put(entry.path(), entry);
+                    }
+                }
+                return;
+            }
+
+            int middle = (start_ + end_) >>> 1;
+            invokeAll(new ProbeTask(files_, start_, middle), new ProbeTask(files_, middle, end_));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("rom_library{entries=%d, last_probed=%d}", entries_.size(), last_probed_);
+    }
+
+}
@@ -2,11 +2,27 @@ package cartridge.util;
 
 import cartridge.constants.CartridgeConstants;
 import cartridge.exceptions.InvalidCartridgeException;
+import cartridge.interfaces.ReadOnlyMemory;
+import cartridge.rom.CompressedROM;
+import cartridge.rom.MappedROM;
+import cartridge.rom.PatchedROM;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 public class RomLoader {
 
@@ -23,7 +39,15 @@ public class RomLoader {
         if (!Files.isRegularFile(file_path)) { throw new IOException("Path is not File"); }
         if (!Files.isReadable(file_path)) { throw new IOException("ROM is not readable"); }
 
-        byte[] rom_data = Files.readAllBytes(file_path);
+        byte[] rom_data;
+        if (isContainer(file_path)) {
+            // whole image, use openRom for bank-wise decompression
+            try (InputStream stream = openContainer(file_path).stream()) {
+                rom_data = stream.readAllBytes();
+            }
+        } else {
+            rom_data = Files.readAllBytes(file_path);
+        }
         
         if (rom_data.length < CartridgeConstants.MIN_ROM_SIZE) { throw new InvalidCartridgeException("ROM file too small: " + rom_data.length + " < " + CartridgeConstants.MIN_ROM_SIZE); }
 
@@ -32,6 +56,188 @@ public class RomLoader {
         return rom_data;
     }
     
+    public static ReadOnlyMemory mapRom(String file_path) throws IOException {
+        if (file_path == null || file_path.isEmpty()) { throw new IllegalArgumentException("file_path Empty"); }
+
+        Path path = Paths.get(file_path);
+        return mapRom(path);
+    }
+
+    // Read-only mapping, pages are shared through the OS page cache instead of copied onto the heap
+    public static ReadOnlyMemory mapRom(Path file_path) throws IOException {
+        if (file_path == null) { throw new IllegalArgumentException("file_path null"); }
+        if (!Files.exists(file_path)) { throw new IllegalArgumentException("ROM not found"); }
+        if (!Files.isRegularFile(file_path)) { throw new IOException("Path is not File"); }
+        if (!Files.isReadable(file_path)) { throw new IOException("ROM is not readable"); }
+
+        try (FileChannel channel = FileChannel.open(file_path, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size < CartridgeConstants.MIN_ROM_SIZE) { throw new InvalidCartridgeException("ROM file too small: " + size + " < " + CartridgeConstants.MIN_ROM_SIZE); }
+            if (size > Integer.MAX_VALUE) { throw new InvalidCartridgeException("ROM file too large: " + size); }
+
+            // mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new MappedROM(buffer);
+        }
+    }
+
+    // .zip / .gz are decompressed bank by bank on first access, anything else is mapped
+    public static ReadOnlyMemory openRom(Path file_path) throws IOException {
+        if (isContainer(file_path)) {
+            return openCompressed(file_path, CompressedROM.DEFAULT_MAX_RESIDENT_BANKS);
+        }
+        return mapRom(file_path);
+    }
+
+    // The compressed file is read into memory once (it is the small copy), the image is only inflated as far as banks are used
+    public static CompressedROM openCompressed(Path file_path, int max_resident_banks) throws IOException {
+        if (file_path == null) { throw new IllegalArgumentException("file_path null"); }
+        if (!Files.exists(file_path)) { throw new IllegalArgumentException("ROM not found"); }
+        if (!Files.isRegularFile(file_path)) { throw new IOException("Path is not File"); }
+        if (!Files.isReadable(file_path)) { throw new IOException("ROM is not readable"); }
+
+        Container container = openContainer(file_path);
+        return new CompressedROM(container.stream(), container.size(), max_resident_banks);
+    }
+
+    // .ips / .bps (format from the magic) over a shared base, only the banks the patch changes are copied
+    public static PatchedROM patchRom(ReadOnlyMemory base, Path patch_path) throws IOException {
+        if (base == null) { throw new IllegalArgumentException("Base ROM null"); }
+        if (patch_path == null) { throw new IllegalArgumentException("patch_path null"); }
+        if (!Files.exists(patch_path)) { throw new IllegalArgumentException("Patch not found"); }
+        if (!Files.isRegularFile(patch_path)) { throw new IOException("Path is not File"); }
+        if (!Files.isReadable(patch_path)) { throw new IOException("Patch is not readable"); }
+
+        return PatchedROM.apply(base, Files.readAllBytes(patch_path));
+    }
+
+    // decompressed stream positioned at the image
+    private record Container(InputStream stream, int size) {}
+
+    private static Container openContainer(Path file_path) throws IOException {
+        String extension = getFileExtension(file_path.getFileName().toString());
+
+        if (extension.equals("gz")) {
+            byte[] compressed = Files.readAllBytes(file_path);
+            if (compressed.length < 18) { throw new InvalidCartridgeException("gzip file truncated"); }
+
+            // ISIZE trailer, uncompressed size mod 2^32 (single member files)
+            int size = ByteBuffer.wrap(compressed, compressed.length - 4, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+            checkImageSize(size & 0xFFFFFFFFL);
+
+            return new Container(new GZIPInputStream(new ByteArrayInputStream(compressed)), size);
+        }
+
+        if (extension.equals("zip")) {
+            // size and entry from the central directory, data streamed from memory
+            String entry_name;
+            long size;
+            try (ZipFile zip = new ZipFile(file_path.toFile())) {
+                ZipEntry entry = findRomEntry(zip);
+                entry_name = entry.getName();
+                size = entry.getSize();
+            }
+            checkImageSize(size);
+
+            ZipInputStream stream = new ZipInputStream(new ByteArrayInputStream(Files.readAllBytes(file_path)));
+            ZipEntry entry;
+            while ((entry = stream.getNextEntry()) != null && !entry.getName().equals(entry_name)) {
+                // skip to the ROM entry
+            }
+            if (entry == null) { throw new InvalidCartridgeException("ROM entry not found in zip: " + entry_name); }
+
+            return new Container(stream, (int) size);
+        }
+
+        throw new IllegalArgumentException("Not a .zip or .gz file: " + file_path.getFileName());
+    }
+
+    // First .gb / .gbc entry, otherwise the only file in the archive
+    private static ZipEntry findRomEntry(ZipFile zip) {
+        ZipEntry only = null;
+        int files = 0;
+
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            if (entry.isDirectory()) {
+                continue;
+            }
+
+            String extension = getFileExtension(entry.getName());
+            if (extension.equals("gb") || extension.equals("gbc")) {
+                return entry;
+            }
+
+            only = entry;
+            files++;
+        }
+
+        if (files != 1) { throw new InvalidCartridgeException("No ROM entry in zip"); }
+        return only;
+    }
+
+    private static void checkImageSize(long size) {
+        if (size < CartridgeConstants.MIN_ROM_SIZE) { throw new InvalidCartridgeException("ROM file too small: " + size + " < " + CartridgeConstants.MIN_ROM_SIZE); }
+        if (size > Integer.MAX_VALUE) { throw new InvalidCartridgeException("ROM file too large: " + size); }
+    }
+
+    // Declared image size without decompressing, zip central directory or gzip ISIZE trailer
+    private static long containerImageSize(Path file_path) throws IOException {
+        if (getFileExtension(file_path.getFileName().toString()).equals("zip")) {
+            try (ZipFile zip = new ZipFile(file_path.toFile())) {
+                return findRomEntry(zip).getSize();
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file_path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < 18) { throw new InvalidCartridgeException("gzip file truncated"); }
+
+            ByteBuffer magic = ByteBuffer.allocate(2);
+            ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, magic, 0);
+            readFully(channel, trailer, length - 4);
+
+            if ((magic.get(0) & 0xFF) != 0x1F || (magic.get(1) & 0xFF) != 0x8B) { throw new InvalidCartridgeException("Not a gzip file"); }
+            return trailer.getInt(0) & 0xFFFFFFFFL;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) { throw new InvalidCartridgeException("gzip file truncated"); }
+        }
+    }
+
+    private static boolean isContainer(Path file_path) {
+        String extension = getFileExtension(file_path.getFileName().toString());
+        return extension.equals("zip") || extension.equals("gz");
+    }
+
+    // Positional read of 0x0000-0x014F only, the rest of the image is never touched
+    public static byte[] readHeaderBytes(Path file_path) throws IOException {
+        if (file_path == null) { throw new IllegalArgumentException("file_path null"); }
+
+        try (FileChannel channel = FileChannel.open(file_path, StandardOpenOption.READ)) {
+            return readHeaderBytes(channel);
+        }
+    }
+
+    public static byte[] readHeaderBytes(FileChannel channel) throws IOException {
+        if (channel.size() < CartridgeConstants.HEADER_END + 1) { throw new InvalidCartridgeException("ROM file does not contain space for header"); }
+
+        byte[] header_data = new byte[CartridgeConstants.HEADER_END + 1];
+        ByteBuffer buffer = ByteBuffer.wrap(header_data);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) { throw new InvalidCartridgeException("ROM file truncated"); }
+        }
+
+        return header_data;
+    }
+
     public record romInfo(byte[] data, long file_size, String file_name, String absolute_path) {
         @Override
         public String toString() {
@@ -68,6 +274,12 @@ public class RomLoader {
                 return false;
             }
 
+            // compressed containers can be smaller than the image, check the size they declare
+            if (isContainer(filepath)) {
+                checkImageSize(containerImageSize(filepath));
+                return true;
+            }
+
             long size = Files.size(filepath);
             if (size < CartridgeConstants.MIN_ROM_SIZE) {
                 return false;
@@ -76,7 +288,7 @@ public class RomLoader {
             String filename = filepath.getFileName().toString().toLowerCase();
             return filename.endsWith(".gb") || filename.endsWith(".gbc");
 
-        } catch (IOException e) {
+        } catch (InvalidCartridgeException | IOException e) {
             return false;
         }
     }
@@ -0,0 +1,133 @@
+package runner;
+
+import cartridge.Cartridge;
+import cartridge.util.RomLoader;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+// Runs many cartridges without a frontend, one work-stealing task per job.
+// At most max_concurrency jobs are in flight, the job stream is only pulled as slots free up.
+public class HeadlessRunner implements AutoCloseable {
+
+    public static final long DEFAULT_CYCLE_BUDGET = 4_194_304L * 60;   // one emulated minute at 4.19 MHz
+
+    private final ForkJoinPool pool_;
+    private final int max_concurrency_;
+    private final long default_cycle_budget_;
+
+    public HeadlessRunner() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CYCLE_BUDGET);
+    }
+
+    public HeadlessRunner(int max_concurrency, long default_cycle_budget) {
+        if (max_concurrency <= 0) { throw new IllegalArgumentException("max_concurrency must be positive"); }
+        if (default_cycle_budget <= 0) { throw new IllegalArgumentException("Cycle budget must be positive"); }
+
+        this.max_concurrency_ = max_concurrency;
+        this.default_cycle_budget_ = default_cycle_budget;
+        this.pool_ = new ForkJoinPool(max_concurrency);
+    }
+
+    public RunReport runPaths(Stream<Path> rom_paths, Workload workload) throws InterruptedException {
+        if (rom_paths == null) { throw new IllegalArgumentException("rom_paths null"); }
+
+        return run(rom_paths.map(Job::of), workload);
+    }
+
+    // Blocks until every job finished, a failing job never stops the others
+    public RunReport run(Stream<Job> jobs, Workload workload) throws InterruptedException {
+        if (jobs == null) { throw new IllegalArgumentException("jobs null"); }
+        if (workload == null) { throw new IllegalArgumentException("Workload null"); }
+
+        long start = System.nanoTime();
+        Semaphore slots = new Semaphore(max_concurrency_);
+        List<ForkJoinTask<JobResult>> tasks = new ArrayList<>();
+
+        try {
+            for (Job job : (Iterable<Job>) jobs::iterator) {
+                slots.acquire();
+
+                tasks.add(pool_.submit(() -> {
+                    try {
+                        return runJob(job, workload);
+                    } finally {
+                        slots.release();
+                    }
+                }));
+            }
+        } finally {
+            jobs.close();
+        }
+
+        List<JobResult> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<JobResult> task : tasks) {
+            results.add(task.join());
+        }
+
+        return new RunReport(results, System.nanoTime() - start);
+    }
+
+    // Single job on the calling thread
+    public JobResult runJob(Job job, Workload workload) {
+        long start = System.nanoTime();
+        long budget = job.cycle_budget() > 0 ? job.cycle_budget() : default_cycle_budget_;
+        HeadlessSession session = null;
+
+        // mapped, sessions of the same ROM share the OS page cache instead of heap copies, .zip / .gz inflate banks on use
+        // closed after the job, off-heap RAM (-Dcartridge.ram=off_heap) goes back to the pool
+        try (Cartridge cartridge = new Cartridge(RomLoader.openRom(job.rom_path()), job.save_path())) {
+            if (job.save_path() != null) {
+                cartridge.load();
+            }
+
+            session = new HeadlessSession(job, cartridge, budget);
+            boolean passed = workload.run(session);
+
+            if (job.save_path() != null) {
+                cartridge.save();
+            }
+
+            JobResult.Status status;
+            if (passed) {
+                status = JobResult.Status.PASSED;
+            } else if (session.isBudgetExhausted()) {
+                status = JobResult.Status.BUDGET_EXHAUSTED;
+            } else {
+                status = JobResult.Status.FAILED;
+            }
+
+            return new JobResult(job, status, session.getCycles(), System.nanoTime() - start, session.getMessage());
+
+        } catch (Throwable e) {
+            // Errors too (StackOverflowError from a runaway ROM), join() would rethrow them and abort the run
+            long cycles = session != null ? session.getCycles() : 0;
+            String message = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+            return new JobResult(job, JobResult.Status.ERROR, cycles, System.nanoTime() - start, message);
+        }
+    }
+
+    public int getMaxConcurrency() {
+        return max_concurrency_;
+    }
+
+    public long getDefaultCycleBudget() {
+        return default_cycle_budget_;
+    }
+
+    @Override
+    public void close() {
+        pool_.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("headless_runner{max_concurrency=%d, default_budget=%d cycles}", max_concurrency_, default_cycle_budget_);
+    }
+
+}
@@ -0,0 +1,92 @@
+package runner;
+
+import cartridge.Cartridge;
+import shared.Bus;
+import shared.Scheduler;
+
+// Cartridge on its own bus and scheduler, time only moves through advance() and never past the cycle budget
+public class HeadlessSession {
+
+    private final Job job_;
+    private final Cartridge cartridge_;
+    private final Bus bus_;
+    private final Scheduler scheduler_;
+    private final long cycle_budget_;
+
+    private long cycles_;
+    private String message_;
+
+    public HeadlessSession(Job job, Cartridge cartridge, long cycle_budget) {
+        if (cartridge == null) { throw new IllegalArgumentException("Cartridge null"); }
+        if (cycle_budget <= 0) { throw new IllegalArgumentException("Cycle budget must be positive"); }
+
+        this.job_ = job;
+        this.cartridge_ = cartridge;
+        this.bus_ = new Bus();
+        this.scheduler_ = new Scheduler();
+        this.cycle_budget_ = cycle_budget;
+
+        cartridge.attach(bus_);
+        scheduler_.register(bus_);
+    }
+
+    // Runs up to cycles (clamped to the budget), false once the budget is used up
+    public boolean advance(int cycles) {
+        if (cycles < 0) { throw new IllegalArgumentException("Negative cycles"); }
+
+        int batch = (int) Math.min(cycles, cycle_budget_ - cycles_);
+        if (batch > 0) {
+            scheduler_.advance(batch);
+            cycles_ += batch;
+        }
+
+        return cycles_ < cycle_budget_;
+    }
+
+    public boolean isBudgetExhausted() {
+        return cycles_ >= cycle_budget_;
+    }
+
+    // Free text attached to the result, e.g. the test ROM's serial output
+    public void report(String message) {
+        this.message_ = message;
+    }
+
+    public Job getJob() {
+        return job_;
+    }
+
+    public Cartridge getCartridge() {
+        return cartridge_;
+    }
+
+    public Bus getBus() {
+        return bus_;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler_;
+    }
+
+    public long getCycles() {
+        return cycles_;
+    }
+
+    public long getCycleBudget() {
+        return cycle_budget_;
+    }
+
+    public long getCyclesRemaining() {
+        return cycle_budget_ - cycles_;
+    }
+
+    public String getMessage() {
+        return message_;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("headless_session{job='%s', cycles=%d/%d}", job_ != null ? job_.name() : "", cycles_, cycle_budget_);
+    }
+
+}
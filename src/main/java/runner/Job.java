@@ -0,0 +1,27 @@
+package runner;
+
+import java.nio.file.Path;
+
+// One cartridge run, save_path = null keeps the RAM on the heap, budget <= 0 uses the runner default
+public record Job(String name, Path rom_path, Path save_path, long cycle_budget) {
+
+    public Job {
+        if (rom_path == null) { throw new IllegalArgumentException("rom_path null"); }
+        if (name == null) {
+            name = rom_path.getFileName().toString();
+        }
+    }
+
+    public static Job of(Path rom_path) {
+        return new Job(null, rom_path, null, 0);
+    }
+
+    public static Job of(Path rom_path, long cycle_budget) {
+        return new Job(null, rom_path, null, cycle_budget);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("job{name='%s', rom='%s', budget=%d}", name, rom_path, cycle_budget);
+    }
+}
@@ -0,0 +1,27 @@
+package runner;
+
+public record JobResult(Job job, Status status, long cycles, long elapsed_nanos, String message) {
+
+    public enum Status {
+        PASSED,
+        FAILED,
+        BUDGET_EXHAUSTED,
+        ERROR
+    }
+
+    public boolean isPassed() {
+        return status == Status.PASSED;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "job_result{name='%s', status=%s, cycles=%d, time=%d us%s}",
+                job.name(),
+                status.name(),
+                cycles,
+                elapsed_nanos / 1000,
+                message != null ? ", message='" + message + "'" : ""
+        );
+    }
+}
@@ -0,0 +1,48 @@
+package runner;
+
+import java.util.List;
+
+// Results in submission order
+public record RunReport(List<JobResult> results, long elapsed_nanos) {
+
+    public int count(JobResult.Status status) {
+        int count = 0;
+        for (JobResult result : results) {
+            if (result.status() == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean isAllPassed() {
+        return count(JobResult.Status.PASSED) == results.size();
+    }
+
+    public long getTotalCycles() {
+        long total = 0;
+        for (JobResult result : results) {
+            total += result.cycles();
+        }
+        return total;
+    }
+
+    // Emulated cycles per wall-clock second over all jobs
+    public double getCyclesPerSecond() {
+        return elapsed_nanos > 0 ? getTotalCycles() * 1e9 / elapsed_nanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "run_report{jobs=%d, passed=%d, failed=%d, budget_exhausted=%d, errors=%d, cycles=%d, time=%d ms}",
+                results.size(),
+                count(JobResult.Status.PASSED),
+                count(JobResult.Status.FAILED),
+                count(JobResult.Status.BUDGET_EXHAUSTED),
+                count(JobResult.Status.ERROR),
+                getTotalCycles(),
+                elapsed_nanos / 1_000_000
+        );
+    }
+}
@@ -0,0 +1,8 @@
+package runner;
+
+// Drives one session (CPU loop, test ROM protocol, save checks), true = passed.
+// Running out of cycles is reported by the runner, the workload only has to stop when advance() returns false.
+@FunctionalInterface
+public interface Workload {
+    boolean run(HeadlessSession session) throws Exception;
+}
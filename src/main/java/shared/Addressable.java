@@ -8,4 +8,16 @@ public interface Addressable extends Component {
 
     boolean accepts(int address);
 
+    // Bulk read for DMA / debugger views, devices override to resolve mapping once per span
+    default void readBlock(int address, byte[] dst, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = (byte) read(address + i);
+        }
+    }
+
+    // 16 bit little endian
+    default int readWord(int address) {
+        return read(address) | (read(address + 1) << 8);
+    }
+
 }
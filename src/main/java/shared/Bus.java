@@ -0,0 +1,283 @@
+package shared;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class Bus implements Addressable {
+
+    public static final int PAGE_SHIFT = 8;
+    public static final int PAGE_SIZE = 1 << PAGE_SHIFT;    // 256 bytes
+    public static final int PAGE_COUNT = 0x10000 >>> PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    // Page table, every entry always has a handler (open bus if unmapped)
+    private final Addressable[] handlers_;
+
+    // Direct pages, null = go through the handler
+    private final byte[][] read_pages_;
+    private final int[] read_offsets_;
+    private final byte[][] write_pages_;
+    private final int[] write_offsets_;
+
+    private final List<Addressable> devices_;
+    private final List<Addressable> ticking_devices_;
+    private final Addressable open_bus_;
+
+    public Bus() {
+        this.handlers_ = new Addressable[PAGE_COUNT];
+        this.read_pages_ = new byte[PAGE_COUNT][];
+        this.read_offsets_ = new int[PAGE_COUNT];
+        this.write_pages_ = new byte[PAGE_COUNT][];
+        this.write_offsets_ = new int[PAGE_COUNT];
+        this.devices_ = new ArrayList<>();
+        this.ticking_devices_ = new ArrayList<>();
+        this.open_bus_ = new OpenBus();
+
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            handlers_[i] = open_bus_;
+        }
+    }
+
+    @Override
+    public int read(int address) {
+        int page = (address >>> PAGE_SHIFT) & 0xFF;
+
+        byte[] direct = read_pages_[page];
+        if (direct != null) {
+            return Byte.toUnsignedInt(direct[read_offsets_[page] + (address & PAGE_MASK)]);
+        }
+
+        return handlers_[page].read(address);
+    }
+
+    // Direct pages are copied, runs of pages on the same handler become one device call
+    @Override
+    public void readBlock(int address, byte[] dst, int offset, int length) {
+        while (length > 0) {
+            address &= 0xFFFF;
+            int page = address >>> PAGE_SHIFT;
+            int span = Math.min(length, PAGE_SIZE - (address & PAGE_MASK));
+
+            byte[] direct = read_pages_[page];
+            if (direct != null) {
+                System.arraycopy(direct, read_offsets_[page] + (address & PAGE_MASK), dst, offset, span);
+            } else {
+                Addressable handler = handlers_[page];
+
+                // extend over following pages with the same handler
+                int next = page + 1;
+                while (span < length && next < PAGE_COUNT && handlers_[next] == handler && read_pages_[next] == null) {
+                    span = Math.min(length, span + PAGE_SIZE);
+                    next++;
+                }
+
+                handler.readBlock(address, dst, offset, span);
+            }
+
+            address += span;
+            offset += span;
+            length -= span;
+        }
+    }
+
+    @Override
+    public int readWord(int address) {
+        int page = (address >>> PAGE_SHIFT) & 0xFF;
+
+        // both bytes in one direct page
+        byte[] direct = read_pages_[page];
+        if (direct != null && (address & PAGE_MASK) != PAGE_MASK) {
+            int index = read_offsets_[page] + (address & PAGE_MASK);
+            return Byte.toUnsignedInt(direct[index]) | (Byte.toUnsignedInt(direct[index + 1]) << 8);
+        }
+
+        return read(address) | (read((address + 1) & 0xFFFF) << 8);
+    }
+
+    @Override
+    public void write(int address, int value) {
+        int page = (address >>> PAGE_SHIFT) & 0xFF;
+
+        byte[] direct = write_pages_[page];
+        if (direct != null) {
+            direct[write_offsets_[page] + (address & PAGE_MASK)] = (byte) (value & 0xFF);
+            return;
+        }
+
+        handlers_[page].write(address, value);
+    }
+
+    @Override
+    public boolean accepts(int address) {
+        if (address < 0 || address > 0xFFFF) {
+            return false;
+        }
+        return handlers_[address >>> PAGE_SHIFT] != open_bus_;
+    }
+
+    // Registers a device for [start, end], ranges have to be page aligned
+    public void map(int start, int end, Addressable device) {
+        if (device == null) { throw new IllegalArgumentException("Device null"); }
+        checkRange(start, end);
+
+        for (int page = start >>> PAGE_SHIFT; page <= end >>> PAGE_SHIFT; page++) {
+            handlers_[page] = device;
+            read_pages_[page] = null;
+            write_pages_[page] = null;
+        }
+
+        if (!devices_.contains(device)) {
+            devices_.add(device);
+
+            if (device.needsTick()) {
+                ticking_devices_.add(device);
+            }
+        }
+    }
+
+    public void unmap(int start, int end) {
+        checkRange(start, end);
+
+        for (int page = start >>> PAGE_SHIFT; page <= end >>> PAGE_SHIFT; page++) {
+            handlers_[page] = open_bus_;
+            read_pages_[page] = null;
+            write_pages_[page] = null;
+        }
+
+        devices_.removeIf(device -> !isMapped(device));
+        ticking_devices_.retainAll(devices_);
+    }
+
+    // Reads of [start, end] hit data[offset..] directly, writes still go to the handler
+    public void mapDirectRead(int start, int end, byte[] data, int offset) {
+        checkDirect(start, end, data, offset);
+
+        int first = start >>> PAGE_SHIFT;
+        for (int page = first; page <= end >>> PAGE_SHIFT; page++) {
+            read_pages_[page] = data;
+            read_offsets_[page] = offset + ((page - first) << PAGE_SHIFT);
+        }
+    }
+
+    // Plain memory (work RAM, HRAM, ...), reads and writes never leave the bus
+    public void mapMemory(int start, int end, byte[] data, int offset) {
+        checkDirect(start, end, data, offset);
+
+        int first = start >>> PAGE_SHIFT;
+        for (int page = first; page <= end >>> PAGE_SHIFT; page++) {
+            int page_offset = offset + ((page - first) << PAGE_SHIFT);
+            read_pages_[page] = data;
+            read_offsets_[page] = page_offset;
+            write_pages_[page] = data;
+            write_offsets_[page] = page_offset;
+        }
+    }
+
+    // Falls back to the handler, needed when a device remaps (bank switch, RAM disable)
+    public void clearDirect(int start, int end) {
+        checkRange(start, end);
+
+        for (int page = start >>> PAGE_SHIFT; page <= end >>> PAGE_SHIFT; page++) {
+            read_pages_[page] = null;
+            write_pages_[page] = null;
+        }
+    }
+
+    public Addressable getHandler(int address) {
+        return handlers_[(address >>> PAGE_SHIFT) & 0xFF];
+    }
+
+    public boolean isDirect(int address) {
+        return read_pages_[(address >>> PAGE_SHIFT) & 0xFF] != null;
+    }
+
+    public List<Addressable> getDevices() {
+        return List.copyOf(devices_);
+    }
+
+    private boolean isMapped(Addressable device) {
+        for (Addressable handler : handlers_) {
+            if (handler == device) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void checkRange(int start, int end) {
+        if (start < 0 || end > 0xFFFF || start > end) { throw new IllegalArgumentException("Invalid range"); }
+        if ((start & PAGE_MASK) != 0 || (end & PAGE_MASK) != PAGE_MASK) { throw new IllegalArgumentException("Range not page aligned"); }
+    }
+
+    private static void checkDirect(int start, int end, byte[] data, int offset) {
+        checkRange(start, end);
+
+        if (data == null) { throw new IllegalArgumentException("Data null"); }
+        if (offset < 0 || offset + (end - start + 1) > data.length) { throw new IllegalArgumentException("Data too small for range"); }
+    }
+
+    // Devices without time-based behavior are never called
+    @Override
+    public void tick(int cycles) {
+        for (int i = 0; i < ticking_devices_.size(); i++) {
+            ticking_devices_.get(i).tick(cycles);
+        }
+    }
+
+    @Override
+    public boolean needsTick() {
+        return !ticking_devices_.isEmpty();
+    }
+
+    @Override
+    public void reset() {
+        for (Addressable device : devices_) {
+            device.reset();
+        }
+    }
+
+    @Override
+    public String getComponentName() {
+        return "Bus";
+    }
+
+    @Override
+    public String toString() {
+        return String.format("bus{devices=%d}", devices_.size());
+    }
+
+    // Unmapped pages
+    private static final class OpenBus implements Addressable {
+
+        @Override
+        public int read(int address) {
+            return 0xFF;
+        }
+
+        @Override
+        public void write(int address, int value) {
+            // ignored
+        }
+
+        @Override
+        public boolean accepts(int address) {
+            return false;
+        }
+
+        @Override
+        public void tick(int cycles) {
+            // nothing
+        }
+
+        @Override
+        public void reset() {
+            // nothing
+        }
+
+        @Override
+        public String getComponentName() {
+            return "OpenBus";
+        }
+    }
+
+}
@@ -4,6 +4,11 @@ public interface Component {
 
     void tick(int cycles);
 
+    // false = tick is a no-op, Scheduler and Bus skip the call entirely
+    default boolean needsTick() {
+        return true;
+    }
+
     void reset();
 
     String getComponentName();
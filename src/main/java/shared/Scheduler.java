@@ -0,0 +1,232 @@
+package shared;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Cycle timestamped event queue, the system loop runs up to the next event and only wakes components that are due
+public class Scheduler {
+
+    @FunctionalInterface
+    public interface EventHandler {
+        // cycle = absolute cycle the event was scheduled for, handler may schedule again
+        void onEvent(long cycle);
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Binary min heap on (cycle, sequence), arrays instead of nodes so scheduling never allocates
+    private long[] cycles_;
+    private long[] sequences_;
+    private EventHandler[] handlers_;
+    private int size_;
+    private long next_sequence_;
+
+    private long now_;
+
+    // Components that really need tick(cycles), called once per batch
+    private final List<Component> ticking_;
+
+    public Scheduler() {
+        this.cycles_ = new long[INITIAL_CAPACITY];
+        this.sequences_ = new long[INITIAL_CAPACITY];
+        this.handlers_ = new EventHandler[INITIAL_CAPACITY];
+        this.size_ = 0;
+        this.next_sequence_ = 0;
+        this.now_ = 0;
+        this.ticking_ = new ArrayList<>();
+    }
+
+    // Components without per-cycle behavior are not tracked at all
+    public void register(Component component) {
+        if (component == null) { throw new IllegalArgumentException("Component null"); }
+
+        if (component.needsTick() && !ticking_.contains(component)) {
+            ticking_.add(component);
+        }
+    }
+
+    public void unregister(Component component) {
+        ticking_.remove(component);
+    }
+
+    public void schedule(long cycle, EventHandler handler) {
+        if (handler == null) { throw new IllegalArgumentException("Handler null"); }
+        if (cycle < now_) { throw new IllegalArgumentException("Event in the past: " + cycle + " < " + now_); }
+
+        if (size_ == cycles_.length) {
+            grow();
+        }
+
+        int index = size_++;
+        cycles_[index] = cycle;
+        sequences_[index] = next_sequence_++;    // same cycle = FIFO
+        handlers_[index] = handler;
+
+        siftUp(index);
+    }
+
+    public void scheduleIn(long cycles, EventHandler handler) {
+        schedule(now_ + cycles, handler);
+    }
+
+    // Removes every pending event of the handler
+    // one compacting pass and a bottom-up heapify, removeAt could sift a match behind the scan
+    public void cancel(EventHandler handler) {
+        int kept = 0;
+        for (int index = 0; index < size_; index++) {
+            if (handlers_[index] != handler) {
+                move(index, kept++);
+            }
+        }
+
+        if (kept == size_) {
+            return;
+        }
+
+        Arrays.fill(handlers_, kept, size_, null);
+        size_ = kept;
+
+        for (int index = (size_ >>> 1) - 1; index >= 0; index--) {
+            siftDown(index);
+        }
+    }
+
+    // Runs all events up to now + cycles, then ticks the components that need it with the whole batch
+    public void advance(int cycles) {
+        if (cycles < 0) { throw new IllegalArgumentException("Negative cycles"); }
+
+        long target = now_ + cycles;
+
+        while (size_ > 0 && cycles_[0] <= target) {
+            long cycle = cycles_[0];
+            EventHandler handler = handlers_[0];
+            removeAt(0);
+
+            now_ = cycle;
+            handler.onEvent(cycle);
+        }
+
+        now_ = target;
+
+        for (int i = 0; i < ticking_.size(); i++) {
+            ticking_.get(i).tick(cycles);
+        }
+    }
+
+    // Largest batch the system loop can run without missing an event, Long.MAX_VALUE if idle
+    public long cyclesUntilNextEvent() {
+        return size_ > 0 ? cycles_[0] - now_ : Long.MAX_VALUE;
+    }
+
+    public long getNextEventCycle() {
+        return size_ > 0 ? cycles_[0] : -1;
+    }
+
+    public long getCycle() {
+        return now_;
+    }
+
+    public int getPendingEvents() {
+        return size_;
+    }
+
+    public int getTickingComponents() {
+        return ticking_.size();
+    }
+
+    public void reset() {
+        Arrays.fill(handlers_, 0, size_, null);
+        size_ = 0;
+        next_sequence_ = 0;
+        now_ = 0;
+    }
+
+    private void removeAt(int index) {
+        int last = --size_;
+
+        if (index != last) {
+            move(last, index);
+            handlers_[last] = null;
+
+            // replacement can go either way
+            siftDown(index);
+            siftUp(index);
+        } else {
+            handlers_[last] = null;
+        }
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(index, parent)) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = (index << 1) + 1;
+            if (left >= size_) {
+                break;
+            }
+
+            int right = left + 1;
+            int smallest = (right < size_ && less(right, left)) ? right : left;
+
+            if (!less(smallest, index)) {
+                break;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private boolean less(int a, int b) {
+        if (cycles_[a] != cycles_[b]) {
+            return cycles_[a] < cycles_[b];
+        }
+        return sequences_[a] < sequences_[b];
+    }
+
+    private void swap(int a, int b) {
+        long cycle = cycles_[a];
+        long sequence = sequences_[a];
+        EventHandler handler = handlers_[a];
+
+        move(b, a);
+
+        cycles_[b] = cycle;
+        sequences_[b] = sequence;
+        handlers_[b] = handler;
+    }
+
+    private void move(int from, int to) {
+        cycles_[to] = cycles_[from];
+        sequences_[to] = sequences_[from];
+        handlers_[to] = handlers_[from];
+    }
+
+    private void grow() {
+        int capacity = cycles_.length << 1;
+        cycles_ = Arrays.copyOf(cycles_, capacity);
+        sequences_ = Arrays.copyOf(sequences_, capacity);
+        handlers_ = Arrays.copyOf(handlers_, capacity);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "scheduler{cycle=%d, pending=%d, next=%d, ticking=%d}",
+                now_,
+                size_,
+                getNextEventCycle(),
+                ticking_.size()
+        );
+    }
+
+}